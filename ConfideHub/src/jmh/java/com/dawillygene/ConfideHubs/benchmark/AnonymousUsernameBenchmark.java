@@ -0,0 +1,53 @@
+package com.dawillygene.ConfideHubs.benchmark;
+
+import com.dawillygene.ConfideHubs.service.AnonymousUsernameService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code AnonymousUsernameService.generateDeterministicUsername}, which runs once for every post
+ * of every page served. Each invocation names one page of posts with UUID ids, as
+ * {@code PostService.setRandomDisplayNames} does.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AnonymousUsernameBenchmark {
+
+    @Param({"20", "100"})
+    public int pageSize;
+
+    private final AnonymousUsernameService service = new AnonymousUsernameService();
+    private String[] ids;
+
+    @Setup
+    public void setUp() {
+        ids = new String[pageSize];
+        for (int i = 0; i < pageSize; i++) {
+            ids[i] = UUID.randomUUID().toString();
+        }
+    }
+
+    @Benchmark
+    public void namePage(Blackhole blackhole) {
+        for (String id : ids) {
+            blackhole.consume(service.generateDeterministicUsername(id));
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.dawillygene.ConfideHubs.benchmark;
+
+import com.dawillygene.ConfideHubs.service.recommendation.IdDictionary;
+import com.dawillygene.ConfideHubs.service.recommendation.KeywordVector;
+import com.dawillygene.ConfideHubs.service.recommendation.SparseRow;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The two similarity kernels of the ranking loop: user-user cosine over sparse interaction rows
+ * ({@code SparseRow.cosineSimilarity}) and user-post content similarity over keyword bitsets
+ * ({@code KeywordVector.similarity}). Each invocation compares one vector against 1,000
+ * others, like one user against the candidates of a request.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SimilarityBenchmark {
+
+    private static final int PAIRS = 1_000;
+
+    @State(Scope.Benchmark)
+    public static class Rows {
+
+        /** Non-zero entries per interaction row, out of {@code 20 × rowSize} posts. */
+        @Param({"10", "100", "1000"})
+        public int rowSize;
+
+        SparseRow row;
+        SparseRow[] others;
+
+        @Setup
+        public void setUp() {
+            Random random = new Random(42);
+            int postCount = rowSize * 20;
+            row = randomRow(random, postCount);
+            others = new SparseRow[PAIRS];
+            for (int i = 0; i < PAIRS; i++) {
+                others[i] = randomRow(random, postCount);
+            }
+        }
+
+        private SparseRow randomRow(Random random, int postCount) {
+            TreeMap<Integer, Float> entries = new TreeMap<>();
+            while (entries.size() < rowSize) {
+                entries.put(random.nextInt(postCount), 1f + random.nextInt(3));
+            }
+            int[] indexes = new int[entries.size()];
+            float[] values = new float[entries.size()];
+            int i = 0;
+            for (var entry : entries.entrySet()) {
+                indexes[i] = entry.getKey();
+                values[i++] = entry.getValue();
+            }
+            return new SparseRow(indexes, values);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Keywords {
+
+        /** Keywords per content vector, out of a vocabulary of {@code 20 × keywords}. */
+        @Param({"4", "16", "64"})
+        public int keywords;
+
+        KeywordVector vector;
+        KeywordVector[] others;
+
+        @Setup
+        public void setUp() {
+            Random random = new Random(42);
+            IdDictionary<String> dictionary = new IdDictionary<>();
+            int vocabulary = keywords * 20;
+            for (int i = 0; i < vocabulary; i++) {
+                dictionary.intern("keyword" + i);
+            }
+            vector = randomVector(random, dictionary, vocabulary);
+            others = new KeywordVector[PAIRS];
+            for (int i = 0; i < PAIRS; i++) {
+                others[i] = randomVector(random, dictionary, vocabulary);
+            }
+        }
+
+        private KeywordVector randomVector(Random random, IdDictionary<String> dictionary, int vocabulary) {
+            List<String> words = new ArrayList<>(keywords);
+            for (int i = 0; i < keywords; i++) {
+                words.add(dictionary.keyAt(random.nextInt(vocabulary)));
+            }
+            return KeywordVector.of(words, dictionary);
+        }
+    }
+
+    @Benchmark
+    public void cosineSimilarity(Rows rows, Blackhole blackhole) {
+        for (SparseRow other : rows.others) {
+            blackhole.consume(rows.row.cosineSimilarity(other));
+        }
+    }
+
+    @Benchmark
+    public void contentSimilarity(Keywords keywords, Blackhole blackhole) {
+        for (KeywordVector other : keywords.others) {
+            blackhole.consume(keywords.vector.similarity(other));
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.dawillygene.ConfideHubs.benchmark;
+
+import com.dawillygene.ConfideHubs.model.Post;
+import com.dawillygene.ConfideHubs.service.PostService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The per-post work of a full trending recomputation done in memory: the expiry check, the creation
+ * time in epoch seconds and {@link PostService#trendingScore}, with the reaction counts already
+ * loaded. The hourly job does this in SQL; this is the baseline for computing it in the application.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TrendingScoreBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int posts;
+
+    private List<Post> allPosts;
+    private long[][] counts;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        LocalDateTime now = LocalDateTime.now();
+        allPosts = new ArrayList<>(posts);
+        counts = new long[posts][3];
+        for (int i = 0; i < posts; i++) {
+            Post post = new Post();
+            post.setId("post-" + i);
+            post.setCreatedAt(now.minusMinutes(random.nextInt(60 * 24 * 30)));
+            // A tenth of the posts have already expired and are skipped
+            post.setExpiresAt(random.nextInt(10) == 0 ? now.minusMinutes(1) : now.plusDays(7));
+            allPosts.add(post);
+            counts[i][0] = random.nextInt(100);
+            counts[i][1] = random.nextInt(50);
+            counts[i][2] = random.nextInt(20);
+        }
+    }
+
+    @Benchmark
+    public double scorePosts() {
+        LocalDateTime now = LocalDateTime.now();
+        double total = 0;
+        for (int i = 0; i < allPosts.size(); i++) {
+            Post post = allPosts.get(i);
+            if (post.getExpiresAt() != null && now.isAfter(post.getExpiresAt())) {
+                continue;
+            }
+            long createdAtEpochSecond = post.getCreatedAt().toEpochSecond(ZoneOffset.UTC);
+            double trendingScore = PostService.trendingScore(counts[i][0], counts[i][1], counts[i][2],
+                    createdAtEpochSecond);
+            post.setTrendingScore(trendingScore);
+            total += trendingScore;
+        }
+        return total;
+    }
+}
@@ -1,22 +1,47 @@
 package com.dawillygene.ConfideHubs.config;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+/**
+ * Bounded Caffeine caches with their own size limit and expiry. Statistics are recorded so the
+ * actuator {@code metrics} endpoint reports hits, misses and evictions per cache
+ * ({@code cache.gets}, {@code cache.evictions}, ...).
+ */
 @Configuration
 @EnableCaching
 public class CacheConfig {
 
+    @Value("${spring.cache.caffeine.spec:maximumSize=1000,expireAfterWrite=1h}")
+    private String defaultSpec;
+
+    @Value("${cache.recommendations.spec:maximumSize=50000,expireAfterWrite=30m}")
+    private String recommendationsSpec;
+
+    @Value("${cache.posts.spec:maximumSize=20000,expireAfterWrite=10m}")
+    private String postsSpec;
+
+    @Value("${cache.recommendation-feeds.spec:maximumSize=20000,expireAfterWrite=10m}")
+    private String recommendationFeedsSpec;
+
+    @Value("${cache.user-interests.spec:maximumSize=100000,expireAfterWrite=6h}")
+    private String userInterestsSpec;
+
     @Bean
     public CacheManager cacheManager() {
-        return new ConcurrentMapCacheManager(
-            "recommendations", 
-            "userInteractionMatrix", 
-            "userPreferences",
-            "postFeatures"
-        );
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        // Caches created on demand by name use the global spec
+        cacheManager.setCaffeine(Caffeine.from(defaultSpec).recordStats());
+        cacheManager.registerCustomCache("recommendations", Caffeine.from(recommendationsSpec).recordStats().build());
+        cacheManager.registerCustomCache("posts", Caffeine.from(postsSpec).recordStats().build());
+        cacheManager.registerCustomCache("recommendationFeeds",
+                Caffeine.from(recommendationFeedsSpec).recordStats().build());
+        cacheManager.registerCustomCache("userInterests", Caffeine.from(userInterestsSpec).recordStats().build());
+        return cacheManager;
     }
-}
\ No newline at end of file
+}
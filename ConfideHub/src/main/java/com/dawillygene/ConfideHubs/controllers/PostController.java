@@ -2,6 +2,8 @@ package com.dawillygene.ConfideHubs.controllers;
 
 import com.dawillygene.ConfideHubs.model.Comment;
 import com.dawillygene.ConfideHubs.model.Post;
+import com.dawillygene.ConfideHubs.payload.response.MessageResponse;
+import com.dawillygene.ConfideHubs.payload.response.RecommendationFeedResponse;
 import com.dawillygene.ConfideHubs.service.CommentService;
 import com.dawillygene.ConfideHubs.service.PostService;
 import com.dawillygene.ConfideHubs.service.RecommendationService;
@@ -29,11 +31,28 @@ public class PostController {
 
 
     @GetMapping("/recommendations")
-    public ResponseEntity<List<Post>> getRecommendedPosts(@RequestParam(defaultValue = "10") int limit) {
-        List<Post> recommendedPosts = recommendationService.getRecommendedPosts(limit);
+    public ResponseEntity<List<Post>> getRecommendedPosts(
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(required = false) String mode) {
+        List<Post> recommendedPosts = recommendationService.getRecommendedPosts(limit, mode);
         return ResponseEntity.ok(recommendedPosts);
     }
 
+    @GetMapping("/recommendations/feed")
+    public ResponseEntity<RecommendationFeedResponse> getRecommendationFeed(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(required = false) String mode) {
+        return ResponseEntity.ok(recommendationService.getRecommendationFeed(cursor, limit, mode));
+    }
+
+    @PostMapping("/recommendations/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<MessageResponse> rebuildRecommendationState() {
+        recommendationService.rebuildRecommendationState();
+        return ResponseEntity.ok(new MessageResponse("Recommendation state rebuilt"));
+    }
+
     @PostMapping
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<Post> createPost(@RequestBody Post post) {
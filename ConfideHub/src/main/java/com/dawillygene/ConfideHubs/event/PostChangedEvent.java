@@ -0,0 +1,44 @@
+package com.dawillygene.ConfideHubs.event;
+
+import com.dawillygene.ConfideHubs.model.Post;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Published when a post is created, edited or deleted.
+ * Carries a copy of the fields the in-memory indexes need, never the managed entity.
+ */
+public record PostChangedEvent(String postId,
+                               ChangeType changeType,
+                               List<String> categories,
+                               List<String> hashtags,
+                               LocalDateTime createdAt,
+                               LocalDateTime expiresAt) {
+
+    public enum ChangeType {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    public static PostChangedEvent of(Post post, ChangeType changeType) {
+        return new PostChangedEvent(
+                post.getId(),
+                changeType,
+                copy(post.getCategories()),
+                copy(post.getHashtags()),
+                post.getCreatedAt(),
+                post.getExpiresAt());
+    }
+
+    private static List<String> copy(List<String> values) {
+        return values != null ? Collections.unmodifiableList(new ArrayList<>(values)) : List.of();
+    }
+
+    public static PostChangedEvent deleted(String postId) {
+        return new PostChangedEvent(postId, ChangeType.DELETED, List.of(), List.of(), null, null);
+    }
+}
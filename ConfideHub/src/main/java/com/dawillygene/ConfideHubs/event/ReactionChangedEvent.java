@@ -0,0 +1,17 @@
+package com.dawillygene.ConfideHubs.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published when a user adds or removes an interaction with a post (a reaction or a comment).
+ * Listeners use it to keep in-memory ranking state in step with the database.
+ *
+ * @param userId       the reacting user
+ * @param postId       the post reacted to
+ * @param reactionType like, support, comment or bookmark
+ * @param delta        +1 when the interaction was added, -1 when it was removed
+ * @param occurredAt   when the interaction was made, also for a removal; null means now
+ */
+public record ReactionChangedEvent(Long userId, String postId, String reactionType, int delta,
+                                   LocalDateTime occurredAt) {
+}
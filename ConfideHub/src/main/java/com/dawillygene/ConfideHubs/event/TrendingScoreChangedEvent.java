@@ -0,0 +1,14 @@
+package com.dawillygene.ConfideHubs.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published when a reaction changed a post's trending score.
+ * Carries a copy of the fields the trending leaderboard orders by, never the managed entity.
+ *
+ * @param trendingScore the post's new log-time trending score
+ * @param expiresAt     null for posts that never expire
+ */
+public record TrendingScoreChangedEvent(String postId, double trendingScore, LocalDateTime createdAt,
+                                        LocalDateTime expiresAt) {
+}
@@ -0,0 +1,12 @@
+package com.dawillygene.ConfideHubs.event;
+
+import java.util.Set;
+
+/**
+ * Published when a user changes the interests on their profile, which pick the cold-start lists
+ * they are served from.
+ *
+ * @param interests a copy of the new interests, never the managed collection
+ */
+public record UserInterestsChangedEvent(Long userId, Set<String> interests) {
+}
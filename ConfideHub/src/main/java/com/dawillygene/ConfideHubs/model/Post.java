@@ -9,7 +9,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "posts")
+@Table(name = "posts", indexes = @Index(name = "idx_posts_expires_at", columnList = "expires_at"))
 @Data
 public class Post {
     @Id
@@ -45,6 +45,8 @@ public class Post {
     private ExpiryDuration expiryDuration = ExpiryDuration.NEVER;
 
     private LocalDateTime expiresAt;
+    // Set when the post is created, then written only by atomic updates in PostRepository
+    @Column(updatable = false)
     private Double trendingScore = (double) 0;
 
     public enum ExpiryDuration {
@@ -0,0 +1,73 @@
+package com.dawillygene.ConfideHubs.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Ranked recommendations of one user from one batch run: post ids in rank order with their final
+ * scores, stored as two arrays in a single row.
+ * Each run writes under a new model version, so a half-finished run never mixes with the previous
+ * one; readers take the newest row of the user.
+ */
+@Entity
+@Table(
+        name = "precomputed_recommendations",
+        indexes = @Index(name = "idx_precomputed_recommendation_user", columnList = "user_id, model_version")
+)
+@IdClass(PrecomputedRecommendation.Key.class)
+@Data
+@NoArgsConstructor
+public class PrecomputedRecommendation implements Persistable<PrecomputedRecommendation.Key> {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Id
+    @Column(name = "model_version")
+    private Long modelVersion;
+
+    @Column(name = "post_ids", nullable = false)
+    private String[] postIds;
+
+    @Column(nullable = false)
+    private float[] scores;
+
+    @Column(nullable = false)
+    private LocalDateTime computedAt;
+
+    public PrecomputedRecommendation(Long userId, Long modelVersion, String[] postIds, float[] scores) {
+        this.userId = userId;
+        this.modelVersion = modelVersion;
+        this.postIds = postIds;
+        this.scores = scores;
+        this.computedAt = LocalDateTime.now();
+    }
+
+    @Override
+    public Key getId() {
+        return new Key(userId, modelVersion);
+    }
+
+    /**
+     * Rows are only ever inserted, under a fresh model version, so saving skips the merge lookup.
+     */
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long userId;
+        private Long modelVersion;
+    }
+}
@@ -30,6 +30,10 @@ public class User {
     @Column(nullable = true)
     private LocalDateTime anonymousUsernameExpiresAt;
 
+    // Last time the user added or removed a reaction or comment; only written by UserRepository
+    @Column(name = "interactions_changed_at", insertable = false, updatable = false)
+    private LocalDateTime interactionsChangedAt;
+
     @NotBlank
     @Size(max = 50)
     private String email;
@@ -131,6 +135,10 @@ public class User {
         return anonymousUsernameExpiresAt;
     }
 
+    public LocalDateTime getInteractionsChangedAt() {
+        return interactionsChangedAt;
+    }
+
     public void setAnonymousUsernameExpiresAt(LocalDateTime anonymousUsernameExpiresAt) {
         this.anonymousUsernameExpiresAt = anonymousUsernameExpiresAt;
     }
@@ -0,0 +1,64 @@
+package com.dawillygene.ConfideHubs.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Stored top-N similar users of one user, ordered by descending cosine similarity, as two
+ * aligned arrays in a single row. Rewritten whenever the list changes, so it is loaded at startup
+ * instead of being recomputed for every user.
+ * <p>
+ * A changed list replaces the row rather than updating it (see
+ * {@link com.dawillygene.ConfideHubs.repository.UserNeighbourhoodRepository#replaceAll}), so rows
+ * built in memory are new and saving them skips the merge lookup.
+ */
+@Entity
+@Table(name = "user_neighbours")
+@Data
+@NoArgsConstructor
+public class UserNeighbourhood implements Persistable<Long> {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "neighbour_ids", nullable = false)
+    private long[] neighbourIds;
+
+    @Column(nullable = false)
+    private float[] similarities;
+
+    @Column(nullable = false)
+    private LocalDateTime computedAt;
+
+    // Set once the row is known to exist, i.e. after it was loaded or inserted
+    @Transient
+    private boolean stored;
+
+    public UserNeighbourhood(Long userId, long[] neighbourIds, float[] similarities) {
+        this.userId = userId;
+        this.neighbourIds = neighbourIds;
+        this.similarities = similarities;
+        this.computedAt = LocalDateTime.now();
+    }
+
+    @Override
+    public Long getId() {
+        return userId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return !stored;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markStored() {
+        stored = true;
+    }
+}
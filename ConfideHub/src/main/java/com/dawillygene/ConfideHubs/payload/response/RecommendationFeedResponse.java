@@ -0,0 +1,33 @@
+package com.dawillygene.ConfideHubs.payload.response;
+
+import com.dawillygene.ConfideHubs.model.Post;
+
+import java.util.List;
+
+public class RecommendationFeedResponse {
+
+    private List<Post> posts;
+    // Null when the feed has no more posts
+    private String nextCursor;
+
+    public RecommendationFeedResponse(List<Post> posts, String nextCursor) {
+        this.posts = posts;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Post> getPosts() {
+        return posts;
+    }
+
+    public void setPosts(List<Post> posts) {
+        this.posts = posts;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -8,15 +8,42 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, Long> {
     List<Comment> findByPostIdAndParentIsNullOrderByCreatedAtAsc(String postId);
     List<Comment> findByParentIdOrderByCreatedAtAsc(Long parentId);
+
+    /**
+     * (userId, postId, createdAt) of every comment, used to seed the recommendation interaction
+     * matrix without loading comment bodies.
+     */
+    @Query("SELECT c.user.id, c.post.id, c.createdAt FROM Comment c")
+    List<Object[]> findAllUserPostTimes();
     
+    /**
+     * (postId, createdAt) of the comments made since {@code since}, used to seed the hot feed's
+     * engagement windows without loading comment bodies.
+     */
+    @Query("SELECT c.post.id, c.createdAt FROM Comment c WHERE c.createdAt > :since")
+    List<Object[]> findPostTimesSince(@Param("since") LocalDateTime since);
+
     @Modifying
     @Transactional
     @Query("DELETE FROM Comment c WHERE c.post.id = :postId")
     void deleteByPostId(@Param("postId") String postId);
+
+    /**
+     * Detaches the replies among the posts' comments from their parents, so that
+     * {@link #deleteByPostIdIn} does not depend on the order in which rows are deleted.
+     */
+    @Modifying
+    @Query("UPDATE Comment c SET c.parent = NULL WHERE c.post.id IN :postIds AND c.parent IS NOT NULL")
+    int detachRepliesByPostIdIn(@Param("postIds") List<String> postIds);
+
+    @Modifying
+    @Query("DELETE FROM Comment c WHERE c.post.id IN :postIds")
+    int deleteByPostIdIn(@Param("postIds") List<String> postIds);
 }
\ No newline at end of file
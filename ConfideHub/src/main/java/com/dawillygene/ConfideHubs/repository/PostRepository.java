@@ -4,9 +4,11 @@ import com.dawillygene.ConfideHubs.model.Post;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -15,6 +17,13 @@ import java.util.Optional;
 @Repository
 public interface PostRepository extends JpaRepository<Post, String> {
 
+    /**
+     * (postId, category) of every post, used to build the cold-start popularity lists without
+     * loading posts.
+     */
+    @Query("SELECT p.id, c FROM Post p JOIN p.categories c")
+    List<Object[]> findAllPostCategoryPairs();
+
     @Query(value = "SELECT p FROM Post p ORDER BY p.trendingScore DESC, p.createdAt DESC, p.id ASC",
             countQuery = "SELECT count(p) FROM Post p")
     Page<Post> findAll(Pageable pageable);
@@ -22,6 +31,18 @@ public interface PostRepository extends JpaRepository<Post, String> {
     @Query("SELECT p FROM Post p WHERE p.expiresAt IS NULL OR p.expiresAt > :now ORDER BY p.trendingScore DESC, p.createdAt DESC")
     Page<Post> findNonExpiredPosts(@Param("now") LocalDateTime now, Pageable pageable);
 
+    /**
+     * (id, trendingScore, createdAt, expiresAt) of the non-expired posts in trending order, used to
+     * load the trending leaderboard without loading posts.
+     */
+    @Query("SELECT p.id, p.trendingScore, p.createdAt, p.expiresAt FROM Post p "
+            + "WHERE p.expiresAt IS NULL OR p.expiresAt > :now "
+            + "ORDER BY p.trendingScore DESC, p.createdAt DESC, p.id ASC")
+    List<Object[]> findTrendingEntries(@Param("now") LocalDateTime now, Pageable pageable);
+
+    @Query("SELECT COUNT(p) FROM Post p WHERE p.expiresAt IS NULL OR p.expiresAt > :now")
+    long countNonExpiredPosts(@Param("now") LocalDateTime now);
+
     /**
      * Find posts by their IDs that are not expired
      *
@@ -73,6 +94,81 @@ public interface PostRepository extends JpaRepository<Post, String> {
     @Query("SELECT p FROM Post p WHERE p.id = :postId AND p.userId = :userId")
     Optional<Post> findByIdAndUserId(@Param("postId") String postId, @Param("userId") Long userId);
 
+    /**
+     * Ids of up to {@code limit} expired posts, oldest expiry first, read from the
+     * {@code expires_at} index.
+     */
+    @Query(value = "SELECT id FROM posts WHERE expires_at <= :now ORDER BY expires_at, id LIMIT :limit",
+            nativeQuery = true)
+    List<String> findExpiredPostIds(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    /**
+     * Deletes posts in bulk; their categories and hashtags are removed with them. Reactions and
+     * comments must be deleted first.
+     */
+    @Modifying
+    @Query("DELETE FROM Post p WHERE p.id IN :ids")
+    int deleteByIdIn(@Param("ids") List<String> ids);
+
+    /**
+     * Last id of the next chunk of posts in id order, for processing the table in id ranges.
+     *
+     * @param after     exclusive lower bound; an empty string starts from the first post
+     * @param chunkSize number of posts per chunk
+     * @return the largest id among the {@code chunkSize} posts after {@code after}, or null if there are none
+     */
+    @Query(value = "SELECT MAX(c.id) FROM (SELECT id FROM posts WHERE id > :after ORDER BY id LIMIT :chunkSize) c",
+            nativeQuery = true)
+    String findChunkEnd(@Param("after") String after, @Param("chunkSize") int chunkSize);
+
+    /**
+     * Recomputes {@code trending_score} of the posts with ids in {@code (after, upTo]} from one
+     * grouped aggregate over their reactions, using the log-time formula of
+     * {@code PostService.trendingScore}: ln(max(likes + 2 × supports + 1.5 × comments, 0.25)) + created_at / 100,000 s.
+     *
+     * @return number of posts updated
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            UPDATE posts p
+            SET trending_score = LN(GREATEST(s.weighted, 0.25)) + EXTRACT(EPOCH FROM p.created_at) / 100000
+            FROM (SELECT q.id AS post_id,
+                         COALESCE(SUM(CASE r.reaction_type
+                                          WHEN 'like' THEN 1
+                                          WHEN 'support' THEN 2
+                                          WHEN 'comment' THEN 1.5
+                                          ELSE 0 END), 0) AS weighted
+                  FROM posts q LEFT JOIN reactions r ON r.post_id = q.id
+                  WHERE q.id > :after AND q.id <= :upTo
+                  GROUP BY q.id) s
+            WHERE p.id = s.post_id
+            """, nativeQuery = true)
+    int updateTrendingScores(@Param("after") String after, @Param("upTo") String upTo);
+
+    /**
+     * Adds {@code delta} to the weighted engagement behind a post's log-time trending score in one
+     * statement, so concurrent reactions to the same post serialize on its row. The engagement is
+     * recovered as e^(score − created_at / 100,000 s); up to 0.5 it is the 0.25 floor of a post
+     * without engagement (or a score of 0 written before the floor) and counts as none.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            UPDATE posts
+            SET trending_score = LN(GREATEST(
+                    (CASE WHEN trending_score <= 0 THEN 0
+                          WHEN EXP(trending_score - EXTRACT(EPOCH FROM created_at) / 100000) > 0.5
+                          THEN EXP(trending_score - EXTRACT(EPOCH FROM created_at) / 100000)
+                          ELSE 0 END) + :delta,
+                    0.25)) + EXTRACT(EPOCH FROM created_at) / 100000
+            WHERE id = :postId
+            """, nativeQuery = true)
+    int addTrendingEngagement(@Param("postId") String postId, @Param("delta") double delta);
+
+    @Query("SELECT p.trendingScore FROM Post p WHERE p.id = :postId")
+    Double findTrendingScore(@Param("postId") String postId);
+
     /**
      * Count posts by user ID
      * @param userId the user ID
@@ -0,0 +1,23 @@
+package com.dawillygene.ConfideHubs.repository;
+
+import com.dawillygene.ConfideHubs.model.PrecomputedRecommendation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+@Repository
+public interface PrecomputedRecommendationRepository
+        extends JpaRepository<PrecomputedRecommendation, PrecomputedRecommendation.Key> {
+
+    Optional<PrecomputedRecommendation> findFirstByUserIdOrderByModelVersionDesc(Long userId);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM PrecomputedRecommendation p WHERE p.modelVersion < :modelVersion")
+    int deleteOlderThan(@Param("modelVersion") Long modelVersion);
+}
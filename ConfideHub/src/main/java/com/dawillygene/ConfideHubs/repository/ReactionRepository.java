@@ -36,6 +36,17 @@ public interface ReactionRepository extends JpaRepository<Reaction, Long> {
     @Query("DELETE FROM Reaction r WHERE r.post.id = :postId")
     void deleteByPostId(@Param("postId") String postId);
 
+    @Modifying
+    @Query("DELETE FROM Reaction r WHERE r.post.id IN :postIds")
+    int deleteByPostIdIn(@Param("postIds") List<String> postIds);
+
+    /**
+     * (postId, reactionType, createdAt) of the reactions made since {@code since}, used to seed
+     * the hot feed's engagement windows without loading reactions.
+     */
+    @Query("SELECT r.post.id, r.reactionType, r.createdAt FROM Reaction r WHERE r.createdAt > :since")
+    List<Object[]> findPostTypeTimesSince(@Param("since") LocalDateTime since);
+
     // Find all reactions of a specific type for a user
     List<Reaction> findByUserIdAndReactionType(Long userId, String reactionType);
 }
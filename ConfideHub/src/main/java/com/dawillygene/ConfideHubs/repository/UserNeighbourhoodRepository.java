@@ -0,0 +1,23 @@
+package com.dawillygene.ConfideHubs.repository;
+
+import com.dawillygene.ConfideHubs.model.UserNeighbourhood;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface UserNeighbourhoodRepository extends JpaRepository<UserNeighbourhood, Long> {
+
+    /**
+     * Deletes the rows of the given users with one statement and inserts the new ones in batches,
+     * so rewriting a list never reads the old row first.
+     */
+    @Transactional
+    default void replaceAll(Collection<Long> userIds, List<UserNeighbourhood> rows) {
+        deleteAllByIdInBatch(userIds);
+        saveAll(rows);
+    }
+}
@@ -3,8 +3,14 @@ package com.dawillygene.ConfideHubs.repository;
 
 import com.dawillygene.ConfideHubs.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -16,4 +22,19 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     Boolean existsByEmail(String email);
 
+    @Query("SELECT u.id FROM User u")
+    List<Long> findAllIds();
+
+    /**
+     * Stamps the time of the user's latest interaction, which decides whether their precomputed
+     * recommendations are fresh. Native so it bypasses the read-only mapping of the column.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE users SET interactions_changed_at = :changedAt WHERE id = :userId", nativeQuery = true)
+    int touchInteractionsChangedAt(@Param("userId") Long userId, @Param("changedAt") LocalDateTime changedAt);
+
+    @Query("SELECT u.interactionsChangedAt FROM User u WHERE u.id = :userId")
+    Optional<LocalDateTime> findInteractionsChangedAt(@Param("userId") Long userId);
+
 }
@@ -1,24 +1,61 @@
 package com.dawillygene.ConfideHubs.service;
 
-import com.dawillygene.ConfideHubs.model.Post;
-import com.dawillygene.ConfideHubs.model.User;
+import com.dawillygene.ConfideHubs.event.ReactionChangedEvent;
+import com.dawillygene.ConfideHubs.model.PrecomputedRecommendation;
+import com.dawillygene.ConfideHubs.repository.PrecomputedRecommendationRepository;
 import com.dawillygene.ConfideHubs.repository.UserRepository;
+import com.dawillygene.ConfideHubs.service.recommendation.InteractionMatrix;
+import com.dawillygene.ConfideHubs.service.recommendation.RecommendationMode;
+import com.dawillygene.ConfideHubs.service.recommendation.RecommendationModel;
+import com.dawillygene.ConfideHubs.service.recommendation.SparseRow;
+import com.dawillygene.ConfideHubs.service.recommendation.TopK;
+import com.dawillygene.ConfideHubs.service.recommendation.UserNeighbourhoods;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 
-import java.util.Collections;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Precomputes the top recommendations of every user in the background.
+ * Each run takes one immutable {@link RecommendationModel} snapshot and scores all users against
+ * it on a dedicated fork/join pool, so the run neither reloads posts and reactions per user nor
+ * competes with request threads for the common pool.
+ * <p>
+ * Results are stored in {@code precomputed_recommendations} under the snapshot's version and read
+ * back per user by {@link RecommendationService#getRecommendedPosts}, so they survive restarts and
+ * are shared by every instance.
+ * <p>
+ * Most cycles only recompute the dirty users: those who reacted since the last run and those who
+ * interacted with the same posts and have the reacting user among their stored neighbours, whose
+ * user-based CF scores read that user's changed row. A full sweep of
+ * every user runs on the first cycle after startup and then every
+ * {@code recommendation.batch.full-sweep-ms}, picking up new posts and anything the events missed.
+ * <p>
+ * Cold-start users are skipped: their requests are served from the precomputed popularity lists
+ * in constant time, so storing a list per user would only go stale.
+ */
 @Service
 public class BatchRecommendationService {
 
     private static final Logger logger = LoggerFactory.getLogger(BatchRecommendationService.class);
+    private static final int WRITE_CHUNK_SIZE = 500;
 
     @Autowired
     private RecommendationService recommendationService;
@@ -26,84 +63,209 @@ public class BatchRecommendationService {
     @Autowired
     private UserRepository userRepository;
 
-    private final Map<Long, List<Post>> precomputedRecommendations = new ConcurrentHashMap<>();
+    @Autowired
+    private PrecomputedRecommendationRepository precomputedRecommendationRepository;
 
-    @Scheduled(fixedRate = 1800000) // Run every 30 minutes
+    @Value("${recommendation.batch.parallelism:0}")
+    private int parallelism;
+
+    @Value("${recommendation.batch.per-user:20}")
+    private int recommendationsPerUser;
+
+    @Value("${recommendation.batch.full-sweep-ms:21600000}")
+    private long fullSweepIntervalMs;
+
+    @Value("${recommendation.batch.max-co-reactors-per-event:1000}")
+    private int maxCoReactorsPerEvent;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final Set<Long> dirtyUsers = ConcurrentHashMap.newKeySet();
+    private volatile long lastFullSweepAt;
+    private volatile PrecomputeRun lastRun;
+
+    /**
+     * Outcome of one precomputation run. {@code skipped} users kept their previous results.
+     */
+    public record PrecomputeRun(boolean fullSweep, int recomputed, int skipped, int failed, long durationMs,
+                                double usersPerSecond, Instant finishedAt) {
+    }
+
+    /**
+     * Marks the reacting user as dirty, and those who interacted with the same post and have the
+     * reacting user among their stored neighbours. Runs on the request thread, so it reads the
+     * published model without ever loading it, and looks at no more than
+     * {@code recommendation.batch.max-co-reactors-per-event} co-reacting users; on a post with more,
+     * the others are picked up by the next full sweep.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReactionChanged(ReactionChangedEvent event) {
+        if (event.userId() == null || event.postId() == null) {
+            return;
+        }
+        dirtyUsers.add(event.userId());
+        RecommendationModel model = recommendationService.currentModelIfLoaded();
+        UserNeighbourhoods neighbourhoods = model != null ? model.userNeighbourhoods() : null;
+        if (neighbourhoods == null) {
+            return; // Not loaded yet; co-reacting users are left to the next full sweep
+        }
+        InteractionMatrix matrix = model.matrix();
+        SparseRow postUsers = matrix.column(matrix.postIndex(event.postId()));
+        for (int i = 0; i < Math.min(postUsers.size(), maxCoReactorsPerEvent); i++) {
+            Long userId = matrix.userId(postUsers.indexAt(i));
+            UserNeighbourhoods.Neighbourhood neighbourhood = neighbourhoods.get(userId);
+            if (neighbourhood != null && neighbourhood.includes(event.userId())) {
+                dirtyUsers.add(userId);
+            }
+        }
+    }
 
+    public int getDirtyUserCount() {
+        return dirtyUsers.size();
+    }
+
+    @Scheduled(fixedRate = 1800000) // Run every 30 minutes
     public void precomputeRecommendations() {
+        if (!running.compareAndSet(false, true)) {
+            logger.warn("Previous recommendation precomputation is still running; skipping this cycle");
+            return;
+        }
         try {
-            List<User> allUsers = userRepository.findAll();
-            logger.info("Starting precomputation of recommendations for {} users", allUsers.size());
-
-            if (allUsers.isEmpty()) {
-                logger.info("No users found for recommendation precomputation");
-                return;
+            PrecomputeRun run = runPrecomputation();
+            if (run != null) {
+                lastRun = run;
             }
+        } catch (Exception e) {
+            logger.error("Unexpected error in recommendation precomputation task: {}", e.getMessage(), e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private PrecomputeRun runPrecomputation() throws Exception {
+        long start = System.nanoTime();
+        boolean fullSweep = System.currentTimeMillis() - lastFullSweepAt >= fullSweepIntervalMs;
+        List<Long> userIds;
+        int totalUsers;
+        if (fullSweep) {
+            dirtyUsers.clear();
+            userIds = userRepository.findAllIds();
+            totalUsers = userIds.size();
+        } else {
+            // Drain before the snapshot: a reaction arriving in between is in the snapshot and
+            // marked dirty again, so it is never lost
+            userIds = new ArrayList<>(dirtyUsers);
+            dirtyUsers.removeAll(userIds);
+            totalUsers = (int) userRepository.count();
+        }
+        if (userIds.isEmpty()) {
+            logger.info("No users to precompute recommendations for ({} users, none changed)", totalUsers);
+            return report(new PrecomputeRun(false, 0, totalUsers, 0, 0, 0, Instant.now()));
+        }
 
-            for (User user : allUsers) {
+        RecommendationModel model = recommendationService.snapshotModel();
+        RecommendationMode mode = recommendationService.getDefaultMode();
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        logger.info("Starting {} precomputation of recommendations for {} of {} users on {} threads",
+                fullSweep ? "full" : "delta", userIds.size(), totalUsers, threads);
+
+        Queue<PrecomputedRecommendation> results = new ConcurrentLinkedQueue<>();
+        Queue<Long> precomputed = new ConcurrentLinkedQueue<>();
+        AtomicInteger completed = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        AtomicInteger cold = new AtomicInteger();
+        int progressStep = Math.max(1, userIds.size() / 10);
+        ForkJoinPool pool = new ForkJoinPool(threads, BatchRecommendationService::newWorker, null, false);
+        try {
+            pool.submit(() -> userIds.parallelStream().forEach(userId -> {
                 try {
-                    if (user != null && user.getId() != null) {
-                        processUserRecommendations(user);
+                    if (model.isColdStart(userId)) {
+                        cold.incrementAndGet();
                     } else {
-                        logger.warn("Skipping recommendation processing for null user or user with null ID");
+                        results.add(rank(model, userId, mode));
                     }
+                    precomputed.add(userId);
                 } catch (Exception e) {
-                    logger.error("Error precomputing recommendations for user {}: {}",
-                            user != null ? user.getId() : "null", e.getMessage());
+                    failed.incrementAndGet();
+                    dirtyUsers.add(userId);
+                    logger.error("Error precomputing recommendations for user {}: {}", userId, e.getMessage());
                 }
-            }
-
-            logger.info("Finished precomputation of recommendations");
-        } catch (Exception e) {
-            logger.error("Unexpected error in recommendation precomputation task: {}", e.getMessage(), e);
+                int done = completed.incrementAndGet();
+                if (done % progressStep == 0) {
+                    double seconds = (System.nanoTime() - start) / 1e9;
+                    logger.info("Precomputation progress: {}/{} users ({} users/s)",
+                            done, userIds.size(), String.format("%.0f", done / seconds));
+                }
+            })).get();
+        } finally {
+            pool.shutdown();
         }
-    }
 
-    // Removed @Transactional annotation
-    public void processUserRecommendations(User user) {
-        try {
-            if (user == null || user.getId() == null) {
-                logger.warn("Cannot process recommendations for null user or user with null ID");
-                return;
+        write(results);
+        recommendationService.onPrecomputed(model.version(), precomputed);
+        if (fullSweep) {
+            lastFullSweepAt = System.currentTimeMillis();
+            if (failed.get() == 0) {
+                // Also drops the rows of users deleted since the last sweep
+                int removed = precomputedRecommendationRepository.deleteOlderThan(model.version());
+                logger.debug("Removed {} precomputed recommendation rows from earlier runs", removed);
+            } else {
+                logger.warn("Keeping earlier precomputed recommendations because {} users failed", failed.get());
             }
+        }
 
-            List<Post> recommendations = Collections.emptyList();
-            try {
-                recommendations = recommendationService.getRecommendedPosts(user.getId(), 20);
-            } catch (Exception e) {
-                logger.error("Error getting recommendations for user {}: {}", user.getId(), e.getMessage());
-            }
+        long durationMs = (System.nanoTime() - start) / 1_000_000;
+        double usersPerSecond = userIds.size() * 1000.0 / Math.max(1, durationMs);
+        int recomputed = userIds.size() - failed.get() - cold.get();
+        int skipped = Math.max(0, totalUsers - userIds.size()) + cold.get();
+        logger.info("Finished {} precomputation of recommendations version {} in {} ms: {} recomputed, {} skipped, {} failed ({} users/s)",
+                fullSweep ? "full" : "delta", model.version(), durationMs, recomputed, skipped, failed.get(),
+                String.format("%.0f", usersPerSecond));
+        return report(new PrecomputeRun(fullSweep, recomputed, skipped, failed.get(), durationMs, usersPerSecond,
+                Instant.now()));
+    }
 
-            precomputedRecommendations.put(user.getId(), recommendations);
-            logger.debug("Successfully precomputed {} recommendations for user {}",
-                    recommendations.size(), user.getId());
-        } catch (Exception e) {
-            logger.error("Error processing recommendations for user {}: {}",
-                    user != null ? user.getId() : "null", e.getMessage());
-            if (user != null && user.getId() != null) {
-                precomputedRecommendations.put(user.getId(), Collections.emptyList());
-            }
-        }
+    private PrecomputeRun report(PrecomputeRun run) {
+        meterRegistry.counter("recommendation.precompute.users", "result", "recomputed").increment(run.recomputed());
+        meterRegistry.counter("recommendation.precompute.users", "result", "skipped").increment(run.skipped());
+        meterRegistry.counter("recommendation.precompute.users", "result", "failed").increment(run.failed());
+        return run;
     }
 
-    public List<Post> getPrecomputedRecommendations(Long userId, int limit) {
-        if (userId == null) {
-            logger.warn("Requested precomputed recommendations for null userId");
-            return Collections.emptyList();
+    private PrecomputedRecommendation rank(RecommendationModel model, Long userId, RecommendationMode mode) {
+        TopK ranked = model.rank(userId, recommendationsPerUser, mode);
+        int[] indexes = ranked.indexes();
+        String[] postIds = new String[indexes.length];
+        for (int i = 0; i < indexes.length; i++) {
+            postIds[i] = model.postId(indexes[i]);
         }
+        return new PrecomputedRecommendation(userId, model.version(), postIds, ranked.scoresAsFloats());
+    }
 
-        List<Post> recommendations = precomputedRecommendations.get(userId);
-        if (recommendations != null && !recommendations.isEmpty()) {
-            return recommendations.stream()
-                    .limit(limit)
-                    .collect(java.util.stream.Collectors.toList());
+    private void write(Queue<PrecomputedRecommendation> results) {
+        List<PrecomputedRecommendation> chunk = new ArrayList<>(WRITE_CHUNK_SIZE);
+        PrecomputedRecommendation row;
+        while ((row = results.poll()) != null) {
+            chunk.add(row);
+            if (chunk.size() == WRITE_CHUNK_SIZE) {
+                precomputedRecommendationRepository.saveAll(chunk);
+                chunk.clear();
+            }
         }
-
-        try {
-            return recommendationService.getRecommendedPosts(userId, limit);
-        } catch (Exception e) {
-            logger.error("Error getting real-time recommendations for user {}: {}", userId, e.getMessage());
-            return Collections.emptyList();
+        if (!chunk.isEmpty()) {
+            precomputedRecommendationRepository.saveAll(chunk);
         }
     }
+
+    private static ForkJoinWorkerThread newWorker(ForkJoinPool pool) {
+        ForkJoinWorkerThread worker = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        worker.setName("recommendation-precompute-" + worker.getPoolIndex());
+        return worker;
+    }
+
+    public PrecomputeRun getLastRun() {
+        return lastRun;
+    }
 }
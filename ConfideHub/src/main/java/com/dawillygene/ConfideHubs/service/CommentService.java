@@ -1,5 +1,6 @@
 package com.dawillygene.ConfideHubs.service;
 
+import com.dawillygene.ConfideHubs.event.ReactionChangedEvent;
 import com.dawillygene.ConfideHubs.model.Comment;
 import com.dawillygene.ConfideHubs.model.Post;
 import com.dawillygene.ConfideHubs.model.User;
@@ -9,6 +10,7 @@ import com.dawillygene.ConfideHubs.repository.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -30,6 +32,9 @@ public class CommentService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Transactional
     public Comment addComment(String postId, Long parentId, String content) {
         Post post = postRepository.findById(postId)
@@ -52,6 +57,8 @@ public class CommentService {
 
         Comment savedComment = commentRepository.save(comment);
         updateCommentCount(post.getId(), 1); // Increment comment count
+        eventPublisher.publishEvent(new ReactionChangedEvent(user.getId(), post.getId(), "comment", 1,
+                savedComment.getCreatedAt()));
         return savedComment;
     }
 
@@ -79,6 +86,8 @@ public class CommentService {
                 String postId = comment.getPost().getId();
                 commentRepository.deleteById(commentId);
                 updateCommentCount(postId, -1); // Decrement comment count
+                eventPublisher.publishEvent(new ReactionChangedEvent(comment.getUser().getId(), postId, "comment", -1,
+                        comment.getCreatedAt()));
                 logger.info("Comment with ID {} deleted successfully by {}", commentId, currentUsername);
                 return true;
             } else {
@@ -0,0 +1,105 @@
+package com.dawillygene.ConfideHubs.service;
+
+import com.dawillygene.ConfideHubs.event.PostChangedEvent;
+import com.dawillygene.ConfideHubs.repository.CommentRepository;
+import com.dawillygene.ConfideHubs.repository.PostRepository;
+import com.dawillygene.ConfideHubs.repository.ReactionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Deletes expired posts together with their reactions, comments, categories and hashtags.
+ * <p>
+ * Each run takes up to {@code posts.expiry.chunk-size} expired posts at a time from the
+ * {@code expires_at} index and deletes them and their dependents with one bulk statement per
+ * table, in a transaction of its own, so row locks are held only for one chunk. Between chunks it
+ * pauses for {@code posts.expiry.pause-ms} to let request traffic through, and it stops after
+ * {@code posts.expiry.max-chunks} chunks so it never holds the scheduler thread for long; the next
+ * run carries on. Ranking already ignores expired posts, so a delay only costs storage.
+ */
+@Service
+public class ExpiredPostReaper {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExpiredPostReaper.class);
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private ReactionRepository reactionRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${posts.expiry.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${posts.expiry.pause-ms:200}")
+    private long pauseMillis;
+
+    @Value("${posts.expiry.max-chunks:20}")
+    private int maxChunks;
+
+    @Scheduled(fixedDelayString = "${posts.expiry.reap-ms:60000}")
+    public void reapExpiredPosts() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        LocalDateTime now = LocalDateTime.now();
+        long start = System.nanoTime();
+        int posts = 0;
+        int reactions = 0;
+        int comments = 0;
+        for (int chunk = 0; chunk < maxChunks; chunk++) {
+            if (chunk > 0 && !pause()) {
+                break;
+            }
+            int[] deleted = transaction.execute(status -> {
+                List<String> ids = postRepository.findExpiredPostIds(now, chunkSize);
+                if (ids.isEmpty()) {
+                    return new int[]{0, 0, 0};
+                }
+                int reactionCount = reactionRepository.deleteByPostIdIn(ids);
+                commentRepository.detachRepliesByPostIdIn(ids);
+                int commentCount = commentRepository.deleteByPostIdIn(ids);
+                int postCount = postRepository.deleteByIdIn(ids);
+                ids.forEach(id -> eventPublisher.publishEvent(PostChangedEvent.deleted(id)));
+                return new int[]{postCount, reactionCount, commentCount};
+            });
+            posts += deleted[0];
+            reactions += deleted[1];
+            comments += deleted[2];
+            if (deleted[0] < chunkSize) {
+                break;
+            }
+        }
+        if (posts > 0) {
+            logger.info("Deleted {} expired posts with {} reactions and {} comments in {} ms",
+                    posts, reactions, comments, (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(pauseMillis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
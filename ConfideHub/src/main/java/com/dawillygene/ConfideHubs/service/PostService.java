@@ -1,6 +1,9 @@
 package com.dawillygene.ConfideHubs.service;
 
 import com.dawillygene.ConfideHubs.controllers.GeminiModelController;
+import com.dawillygene.ConfideHubs.event.PostChangedEvent;
+import com.dawillygene.ConfideHubs.event.ReactionChangedEvent;
+import com.dawillygene.ConfideHubs.event.TrendingScoreChangedEvent;
 import com.dawillygene.ConfideHubs.model.Post;
 import com.dawillygene.ConfideHubs.model.Post.ExpiryDuration;
 import com.dawillygene.ConfideHubs.model.Reaction;
@@ -11,6 +14,8 @@ import com.dawillygene.ConfideHubs.repository.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.*;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -19,6 +24,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -28,6 +34,11 @@ public class PostService {
 
     private static final Logger logger = LoggerFactory.getLogger(PostService.class);
 
+    /** Age at which a post's trending score has fallen by a factor e; the reciprocal of its 0.00001/s decay. */
+    public static final double TRENDING_DECAY_SECONDS = 100_000;
+    // Engagement a post without reactions scores as; weights step by 0.5, so it stays below any real engagement
+    public static final double TRENDING_ENGAGEMENT_FLOOR = 0.25;
+
     @Autowired
     private PostRepository postRepository;
 
@@ -43,6 +54,15 @@ public class PostService {
     @Autowired
     private GeminiModelController geminiModelController;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TrendingService trendingService;
+
+    @Value("${trending.chunk-size:5000}")
+    private int trendingChunkSize;
+
     @Transactional
     public Post createPost(Post post) {
 
@@ -51,6 +71,7 @@ public class PostService {
         }
 
         post.setCreatedAt(LocalDateTime.now());
+        post.setTrendingScore(initialTrendingScore(post.getCreatedAt()));
 
         if (post.getExpiryDuration() != null) {
             post.setExpiresAt(post.getExpiryDuration().calculateExpiryDate(post.getCreatedAt()));
@@ -74,6 +95,7 @@ public class PostService {
         }
 
         Post savedPost = postRepository.save(post);
+        eventPublisher.publishEvent(PostChangedEvent.of(savedPost, PostChangedEvent.ChangeType.CREATED));
 
         savedPost.setDisplayUsername(anonymousUsername);
         return savedPost;
@@ -91,8 +113,15 @@ public class PostService {
         }
         Pageable pageable = PageRequest.of(page, size, sort);
 
-        LocalDateTime now = LocalDateTime.now();
-        Page<Post> posts = postRepository.findNonExpiredPosts(now, pageable);
+        Page<Post> posts = null;
+        if ("hot".equalsIgnoreCase(sortBy)) {
+            posts = trendingService.getHotPosts(PageRequest.of(page, size));
+        } else if ("trending".equalsIgnoreCase(sortBy)) {
+            posts = trendingService.getTrendingPosts(pageable);
+        }
+        if (posts == null) {
+            posts = postRepository.findNonExpiredPosts(LocalDateTime.now(), pageable);
+        }
 
         for (Post post : posts.getContent()) {
             String anonymousUsername = anonymousUsernameService.generateDeterministicUsername(post.getId());
@@ -136,6 +165,7 @@ public class PostService {
                     }
 
                     Post savedPost = postRepository.save(existingPost);
+                    eventPublisher.publishEvent(PostChangedEvent.of(savedPost, PostChangedEvent.ChangeType.UPDATED));
 
                     String anonymousUsername = anonymousUsernameService.generateDeterministicUsername(savedPost.getId());
                     savedPost.setDisplayUsername(anonymousUsername);
@@ -148,6 +178,7 @@ public class PostService {
     public void deletePost(String id) {
         if (postRepository.existsById(id)) {
             postRepository.deleteById(id);
+            eventPublisher.publishEvent(PostChangedEvent.deleted(id));
         } else {
             throw new RuntimeException("Post not found");
         }
@@ -177,6 +208,9 @@ public class PostService {
         if (existingReaction.isPresent()) {
             reactionRepository.delete(existingReaction.get());
             updatePostReactionCounts(post, reactionType, -1);
+            addTrendingEngagement(post, -trendingWeight(reactionType));
+            eventPublisher.publishEvent(new ReactionChangedEvent(user.getId(), postId, reactionType, -1,
+                    existingReaction.get().getCreatedAt()));
         } else {
             Reaction reaction = new Reaction();
             reaction.setPost(post);
@@ -184,6 +218,9 @@ public class PostService {
             reaction.setReactionType(reactionType);
             reactionRepository.save(reaction);
             updatePostReactionCounts(post, reactionType, 1);
+            addTrendingEngagement(post, trendingWeight(reactionType));
+            eventPublisher.publishEvent(new ReactionChangedEvent(user.getId(), postId, reactionType, 1,
+                    reaction.getCreatedAt()));
         }
 
         Post savedPost = postRepository.save(post);
@@ -203,6 +240,24 @@ public class PostService {
         }
     }
 
+    /**
+     * Adds to the post's trending engagement with one atomic UPDATE of its score, then reads the
+     * score back, mirrors it on the entity and passes it on to the trending leaderboard. The UPDATE
+     * holds the row lock until commit, so the score read is the one this reaction produced, also
+     * when other reactions to the post ran since it was loaded. The entity never writes the score
+     * back itself.
+     */
+    private void addTrendingEngagement(Post post, double delta) {
+        if (delta == 0) {
+            return;
+        }
+        postRepository.addTrendingEngagement(post.getId(), delta);
+        Double score = postRepository.findTrendingScore(post.getId());
+        post.setTrendingScore(score != null ? score : 0);
+        eventPublisher.publishEvent(new TrendingScoreChangedEvent(post.getId(), post.getTrendingScore(),
+                post.getCreatedAt(), post.getExpiresAt()));
+    }
+
     public void setRandomDisplayNames(List<Post> posts) {
         for (Post post : posts) {
             String anonymousUsername = anonymousUsernameService.generateDeterministicUsername(post.getId());
@@ -210,35 +265,65 @@ public class PostService {
         }
     }
 
+    /**
+     * Reconciles the trending score of every post with its reactions, with one set-based UPDATE per
+     * chunk of {@code trending.chunk-size} post ids (see {@link PostRepository#updateTrendingScores}).
+     * Scores are kept current by {@link #updateReaction}; this pass only corrects drift from
+     * concurrent writes or rounding, and converts scores of another form. Expired posts are deleted
+     * by {@link ExpiredPostReaper}.
+     */
     @Async
     @Scheduled(fixedRate = 3600000)
-    public void calculateTrendingScoresAndCleanExpiredPosts() {
-        List<Post> allPosts = postRepository.findAll();
-        LocalDateTime now = LocalDateTime.now();
-
-        for (Post post : allPosts) {
-            if (post.getExpiresAt() != null && now.isAfter(post.getExpiresAt())) {
-                logger.info("Deleting expired post: {}", post.getId());
-                postRepository.deleteById(post.getId());
-                continue;
-            }
-
-            long likeCount = reactionRepository.countByPostIdAndReactionType(post.getId(), "like");
-            long supportCount = reactionRepository.countByPostIdAndReactionType(post.getId(), "support");
-            long commentCount = reactionRepository.countByPostIdAndReactionType(post.getId(), "comment");
+    public void reconcileTrendingScores() {
+        long start = System.nanoTime();
+        long updated = 0;
+        int chunks = 0;
+        String after = "";
+        String upTo;
+        while ((upTo = postRepository.findChunkEnd(after, trendingChunkSize)) != null) {
+            updated += postRepository.updateTrendingScores(after, upTo);
+            chunks++;
+            after = upTo;
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        logger.info("Trending scores updated for {} posts in {} chunks in {} ms ({} rows/s)",
+                updated, chunks, elapsedMillis, elapsedMillis > 0 ? updated * 1000 / elapsedMillis : updated);
+        trendingService.reload();
+    }
 
-            java.time.ZoneOffset currentOffset = java.time.OffsetDateTime.now().getOffset();
+    /**
+     * Log-time trending score: {@code ln(max(likes + 2 × supports + 1.5 × comments, 0.25)) + createdAt / 100,000 s}.
+     * The floor keeps the time term for posts without engagement, so a new post still outranks one
+     * that was engaged with long ago. It is the log of the engagement decayed by e^(−0.00001 × age), plus
+     * a term shared by all posts at any moment, so posts rank the same way. It never changes as time
+     * passes, so a reaction only has to add to its post's score. The hourly job and
+     * {@link PostRepository#addTrendingEngagement} compute the same formula in SQL.
+     *
+     * @param createdAtEpochSecond creation time as epoch seconds of the local wall-clock time, the
+     *                             way {@code created_at} is stored
+     */
+    public static double trendingScore(long likeCount, long supportCount, long commentCount, long createdAtEpochSecond) {
+        double engagement = likeCount * 1 + supportCount * 2 + commentCount * 1.5;
+        return Math.log(Math.max(engagement, TRENDING_ENGAGEMENT_FLOOR)) + createdAtEpochSecond / TRENDING_DECAY_SECONDS;
+    }
 
-            long nowEpochSecond = now.toEpochSecond(currentOffset);
-            long createdAtEpochSecond = post.getCreatedAt().toEpochSecond(currentOffset);
+    /**
+     * @return the trending score of a post created at {@code createdAt} that has no engagement yet
+     */
+    public static double initialTrendingScore(LocalDateTime createdAt) {
+        return trendingScore(0, 0, 0, createdAt.toEpochSecond(ZoneOffset.UTC));
+    }
 
-            double timeFactor = Math.exp(-0.00001 * (nowEpochSecond - createdAtEpochSecond)); // Exponential decay
-            double trendingScore = (likeCount * 1 + supportCount * 2 + commentCount * 1.5) * timeFactor;
-            post.setTrendingScore(trendingScore);
-            postRepository.save(post);
-            logger.debug("Calculated trending score {} for post {}", trendingScore, post.getId());
+    /**
+     * @return the weight of a reaction type in the engagement of the trending score
+     */
+    public static double trendingWeight(String reactionType) {
+        switch (reactionType.toLowerCase()) {
+            case "like": return 1;
+            case "support": return 2;
+            case "comment": return 1.5;
+            default: return 0;
         }
-        logger.info("Trending scores updated and expired posts cleaned.");
     }
 
     private Long getCurrentUserId() {
@@ -2,12 +2,14 @@ package com.dawillygene.ConfideHubs.service;
 
 import com.dawillygene.ConfideHubs.DTO.ProfileDTO;
 import com.dawillygene.ConfideHubs.DTO.ProfileUpdateDTO;
+import com.dawillygene.ConfideHubs.event.UserInterestsChangedEvent;
 import com.dawillygene.ConfideHubs.exception.ResourceNotFoundException;
 import com.dawillygene.ConfideHubs.model.Role;
 import com.dawillygene.ConfideHubs.model.User;
 import com.dawillygene.ConfideHubs.repository.RoleRepository;
 import com.dawillygene.ConfideHubs.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -33,6 +35,9 @@ public class ProfileService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     /**
      * Get current user's profile
      * @return ProfileDTO containing user's profile information
@@ -114,6 +119,8 @@ public class ProfileService {
         // Update interests
         if (profileUpdateDTO.getInterests() != null && !profileUpdateDTO.getInterests().isEmpty()) {
             user.setInterests(profileUpdateDTO.getInterests());
+            eventPublisher.publishEvent(new UserInterestsChangedEvent(user.getId(),
+                    Set.copyOf(profileUpdateDTO.getInterests())));
         }
 
         // Update privacy settings
@@ -1,77 +1,655 @@
 package com.dawillygene.ConfideHubs.service;
 
+import com.dawillygene.ConfideHubs.event.PostChangedEvent;
+import com.dawillygene.ConfideHubs.event.ReactionChangedEvent;
+import com.dawillygene.ConfideHubs.event.UserInterestsChangedEvent;
 import com.dawillygene.ConfideHubs.model.Post;
+import com.dawillygene.ConfideHubs.model.PrecomputedRecommendation;
 import com.dawillygene.ConfideHubs.model.Reaction;
 import com.dawillygene.ConfideHubs.model.User;
+import com.dawillygene.ConfideHubs.model.UserNeighbourhood;
+import com.dawillygene.ConfideHubs.payload.response.RecommendationFeedResponse;
+import com.dawillygene.ConfideHubs.repository.CommentRepository;
 import com.dawillygene.ConfideHubs.repository.PostRepository;
+import com.dawillygene.ConfideHubs.repository.PrecomputedRecommendationRepository;
 import com.dawillygene.ConfideHubs.repository.ReactionRepository;
+import com.dawillygene.ConfideHubs.repository.UserNeighbourhoodRepository;
 import com.dawillygene.ConfideHubs.repository.UserRepository;
-import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.CacheEvict;
+import com.dawillygene.ConfideHubs.service.recommendation.AlsModel;
+import com.dawillygene.ConfideHubs.service.recommendation.ColdStartLists;
+import com.dawillygene.ConfideHubs.service.recommendation.ContentIndex;
+import com.dawillygene.ConfideHubs.service.recommendation.ExpiryIndex;
+import com.dawillygene.ConfideHubs.service.recommendation.IdDictionary;
+import com.dawillygene.ConfideHubs.service.recommendation.InteractionMatrix;
+import com.dawillygene.ConfideHubs.service.recommendation.ItemSimilarityModel;
+import com.dawillygene.ConfideHubs.service.recommendation.MinHashIndex;
+import com.dawillygene.ConfideHubs.service.recommendation.PrecomputedFreshness;
+import com.dawillygene.ConfideHubs.service.recommendation.RecommendationFeed;
+import com.dawillygene.ConfideHubs.service.recommendation.RecommendationKeyIndex;
+import com.dawillygene.ConfideHubs.service.recommendation.RecommendationModel;
+import com.dawillygene.ConfideHubs.service.recommendation.RecommendationMode;
+import com.dawillygene.ConfideHubs.service.recommendation.TimeDecay;
+import com.dawillygene.ConfideHubs.service.recommendation.TopK;
+import com.dawillygene.ConfideHubs.service.recommendation.UserNeighbourhoods;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
+/**
+ * Request-time recommendations.
+ * <p>
+ * The model is double-buffered. Reaction and post events update the live interaction matrix and
+ * content index in place (the back buffer, guarded by {@code stateLock}); at most every
+ * {@code recommendation.model.publish-ms} the changes are frozen into a new immutable, versioned
+ * {@link RecommendationModel} and published with a single reference swap. Readers take the
+ * published model once per request, so they always score against one consistent set of
+ * structures and never wait for a rebuild.
+ * <p>
+ * Requests in the default mode are served from the user's newest precomputed recommendations
+ * (see {@link BatchRecommendationService}) when that row already includes their latest
+ * interaction, and ranked live otherwise.
+ */
 @Service
 public class RecommendationService {
 
     private static final Logger logger = LoggerFactory.getLogger(RecommendationService.class); // Add logger
+    private static final int MAX_FEED_PAGE_SIZE = 50;
+    private static final int MAX_RECOMMENDATIONS = 50;
+    private static final int NEIGHBOURHOOD_WRITE_CHUNK_SIZE = 500;
 
     private final PostRepository postRepository;
     private final ReactionRepository reactionRepository;
     private final UserRepository userRepository;
+    private final CommentRepository commentRepository;
+    private final UserNeighbourhoodRepository userNeighbourhoodRepository;
+    private final PrecomputedRecommendationRepository precomputedRecommendationRepository;
+    private final Cache postCache;
+    private final Cache recommendationCache;
+    private final Cache feedCache;
+    private final Cache interestCache;
+    private final MeterRegistry meterRegistry;
     private final double collaborativeWeight = 0.6;
     private final double contentWeight = 0.4;
 
+    @Value("${recommendation.mode:hybrid}")
+    private String configuredMode;
+
+    @Value("${recommendation.item-similarity.neighbours:50}")
+    private int itemNeighbours;
+
+    @Value("${recommendation.lsh.bands:32}")
+    private int lshBands;
+
+    @Value("${recommendation.lsh.rows:2}")
+    private int lshRows;
+
+    @Value("${recommendation.als.factors:32}")
+    private int alsFactors;
+
+    @Value("${recommendation.als.iterations:10}")
+    private int alsIterations;
+
+    @Value("${recommendation.als.regularization:0.1}")
+    private double alsRegularization;
+
+    @Value("${recommendation.als.alpha:10}")
+    private double alsAlpha;
+
+    @Value("${recommendation.feed.depth:200}")
+    private int feedDepth;
+
+    @Value("${recommendation.cold-start.min-interactions:3}")
+    private int coldStartMinInteractions;
+
+    @Value("${recommendation.cold-start.per-category:200}")
+    private int coldStartPerCategory;
+
+    @Value("${recommendation.decay.half-life-ms:2592000000}")
+    private long decayHalfLifeMs;
+
+    @Value("${recommendation.decay.min-weight:0.05}")
+    private double decayMinWeight;
+
+    @Value("${recommendation.neighbours.size:50}")
+    private int userNeighbourCount;
+
+    @Value("${recommendation.neighbours.full-sweep-ms:21600000}")
+    private long neighbourhoodFullSweepMs;
+
+    @Value("${recommendation.model.build-parallelism:0}")
+    private int buildParallelism;
+
+    // Back buffer: live state, built once at startup and then kept current by reaction and post events
+    private final Object stateLock = new Object();
+    private volatile InteractionMatrix interactionMatrix;
+    private volatile ContentIndex contentIndex;
+    private ItemSimilarityModel itemSimilarityModel;
+    private MinHashIndex neighbourIndex;
+    private AlsModel alsModel;
+    private UserNeighbourhoods userNeighbourhoods;
+    private ColdStartLists coldStartLists;
+    private ExpiryIndex expiryIndex = new ExpiryIndex();
+    // Bumped by every full rebuild; derived models built from an older generation are discarded
+    private long stateGeneration;
+    private boolean stateChanged;
+    // Applied when the changes that caused them are published, so no stale list is cached in between
+    private final Set<Long> pendingUserEvictions = ConcurrentHashMap.newKeySet();
+    private final Set<String> pendingPostEvictions = ConcurrentHashMap.newKeySet();
+    // Moved here by a publish and evicted after stateLock is released
+    private final Set<Long> publishedUserEvictions = ConcurrentHashMap.newKeySet();
+    private final Set<String> publishedPostEvictions = ConcurrentHashMap.newKeySet();
+    private final RecommendationKeyIndex recommendationKeys = new RecommendationKeyIndex();
+    // Users who reacted since their neighbourhood was last refreshed → version of the first model holding it
+    private final Map<Long, Long> dirtyNeighbourhoods = new ConcurrentHashMap<>();
+    private long lastNeighbourhoodSweepAt;
+    private final PrecomputedFreshness precomputedFreshness = new PrecomputedFreshness();
+
+    // Front buffer: the model every reader scores against
+    private final AtomicReference<RecommendationModel> publishedModel = new AtomicReference<>();
+    private final Set<String> pendingBuilds = ConcurrentHashMap.newKeySet();
+    // Derived components a configured or requested mode needs; only these are rebuilt on schedule
+    private final Set<String> requestedComponents = ConcurrentHashMap.newKeySet();
+    // One lock per derived model, so a long ALS training does not hold up the other refreshes
+    private final Object itemSimilarityLock = new Object();
+    private final Object neighbourIndexLock = new Object();
+    private final Object alsLock = new Object();
+    private final Object coldStartLock = new Object();
+    private final Object neighbourhoodLock = new Object();
+    private final ExecutorService modelBuilder = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "recommendation-model-builder");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     public RecommendationService(PostRepository postRepository,
                                 ReactionRepository reactionRepository,
-                                UserRepository userRepository) {
+                                UserRepository userRepository,
+                                CommentRepository commentRepository,
+                                UserNeighbourhoodRepository userNeighbourhoodRepository,
+                                PrecomputedRecommendationRepository precomputedRecommendationRepository,
+                                CacheManager cacheManager,
+                                MeterRegistry meterRegistry) {
         this.postRepository = postRepository;
         this.reactionRepository = reactionRepository;
         this.userRepository = userRepository;
+        this.commentRepository = commentRepository;
+        this.userNeighbourhoodRepository = userNeighbourhoodRepository;
+        this.precomputedRecommendationRepository = precomputedRecommendationRepository;
+        this.postCache = cacheManager.getCache("posts");
+        this.recommendationCache = cacheManager.getCache("recommendations");
+        this.feedCache = cacheManager.getCache("recommendationFeeds");
+        this.interestCache = cacheManager.getCache("userInterests");
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("recommendation.model.age", this, RecommendationService::getModelAgeSeconds)
+                .description("Seconds since the published recommendation model was frozen")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdownModelBuilder() {
+        modelBuilder.shutdownNow();
     }
 
-    @Cacheable(value = "recommendations", key = "#userId + '_' + #numberOfRecommendations")
     @Transactional(readOnly = true)
     public List<Post> getRecommendedPosts(Long userId, int numberOfRecommendations) {
+        return getRecommendedPosts(userId, numberOfRecommendations, getDefaultMode());
+    }
+
+    /**
+     * The user's top recommendations, cached in {@code recommendations} by user, length and mode.
+     * The cache is read here rather than through {@code @Cacheable}, which the overloads calling
+     * this on the same instance would bypass.
+     */
+    @Transactional(readOnly = true)
+    public List<Post> getRecommendedPosts(Long userId, int numberOfRecommendations, RecommendationMode mode) {
         if (userId == null) {
             return Collections.emptyList();
         }
+        numberOfRecommendations = clampRecommendationCount(numberOfRecommendations);
+        String key = userId + "_" + numberOfRecommendations + "_" + mode;
+        @SuppressWarnings("unchecked")
+        List<Post> cached = recommendationCache.get(key, List.class);
+        if (cached != null) {
+            return cached;
+        }
+
+        RecommendationModel model = currentModel(mode);
+        List<String> precomputed = precomputedPostIds(model, userId, mode);
+        List<Post> posts;
+        if (precomputed != null && precomputed.size() >= numberOfRecommendations) {
+            posts = hydrate(precomputed.subList(0, numberOfRecommendations));
+        } else {
+            posts = hydrate(model, rank(model, userId, numberOfRecommendations, mode).indexes());
+        }
+        recommendationKeys.add(key, userId, posts.stream().map(Post::getId).toList());
+        recommendationCache.put(key, posts);
+        return posts;
+    }
+
+    /**
+     * The user's newest precomputed recommendations that are still candidates, best first, or
+     * null if the mode is not the one precomputed, the user is served from the cold-start lists,
+     * or there is no row that includes their latest interaction.
+     */
+    private List<String> precomputedPostIds(RecommendationModel model, Long userId, RecommendationMode mode) {
+        if (mode != getDefaultMode() || model.isColdStart(userId)) {
+            return null;
+        }
+        PrecomputedRecommendation row = precomputedRecommendationRepository
+                .findFirstByUserIdOrderByModelVersionDesc(userId)
+                .orElse(null);
+        boolean fresh = row != null && precomputedFreshness.isFresh(userId, row.getModelVersion(),
+                userRepository.findInteractionsChangedAt(userId)
+                        .map(RecommendationService::toEpochMillis)
+                        .orElse(Long.MIN_VALUE));
+        meterRegistry.counter("recommendation.precomputed.reads", "result", fresh ? "hit" : "miss").increment();
+        if (!fresh) {
+            return null;
+        }
+        // Posts deleted or expired since the run drop out here, the moment they expire
+        long now = System.currentTimeMillis();
+        List<String> postIds = new ArrayList<>(row.getPostIds().length);
+        for (String postId : row.getPostIds()) {
+            if (model.isCandidate(postId, now)) {
+                postIds.add(postId);
+            }
+        }
+        return postIds;
+    }
+
+    /**
+     * Records that the precomputation wrote rows ranked with the model of {@code version} for the
+     * users, so those rows are served until the users interact again.
+     */
+    public void onPrecomputed(long version, Collection<Long> userIds) {
+        precomputedFreshness.precomputed(version, userIds);
+    }
 
-        Map<String, Double> cfScores = getCollaborativeScores(userId);
-        Map<String, Double> cbScores = getContentBasedScores(userId);
-        Map<String, Double> finalScores = new HashMap<>();
+    /**
+     * Ranks with the full engine, or from the cold-start lists when the user has too little
+     * history for collaborative filtering to say anything.
+     */
+    private TopK rank(RecommendationModel model, Long userId, int n, RecommendationMode mode) {
+        if (model.isColdStart(userId)) {
+            return model.rankColdStart(userId, getInterests(userId), n);
+        }
+        return model.rank(userId, n, mode);
+    }
 
-        List<Post> allPosts = postRepository.findAll();
-        Set<String> interactedPostIds = reactionRepository.findByUserId(userId).stream()
-                .map(reaction -> reaction.getPost().getId())
-                .collect(Collectors.toSet());
+    /**
+     * The user's profile interests from the {@code userInterests} cache, loaded on a miss and
+     * replaced when the profile changes, so cold-start requests do not read the user row.
+     */
+    private Set<String> getInterests(Long userId) {
+        return interestCache.get(userId, () -> userRepository.findById(userId)
+                .map(user -> Set.copyOf(user.getInterests()))
+                .orElse(Collections.emptySet()));
+    }
 
-        for (Post post : allPosts) {
-            if (!interactedPostIds.contains(post.getId())) {
-                double cfScore = cfScores.getOrDefault(post.getId(), 0.0);
-                double cbScore = cbScores.getOrDefault(post.getId(), 0.0);
-                finalScores.put(post.getId(), (collaborativeWeight * cfScore) + (contentWeight * cbScore));
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserInterestsChanged(UserInterestsChangedEvent event) {
+        interestCache.put(event.userId(), event.interests());
+        // Cold-start lists were ranked by the old interests
+        evictRecommendations(event.userId());
+    }
+
+    /**
+     * One page of the user's recommendation feed. The first page ranks up to
+     * {@code recommendation.feed.depth} posts once and keeps their ids in the
+     * {@code recommendationFeeds} cache; later pages are slices of that list, so they are neither
+     * rescored nor reshuffled when a new model is published. A cursor whose list has expired
+     * starts a new ranking at the same position.
+     * <p>
+     * When the user's precomputed recommendations can fill the first page, the list starts as
+     * just those and is extended with a live ranking only once a later page reaches past them.
+     */
+    @Transactional(readOnly = true)
+    public RecommendationFeedResponse getRecommendationFeed(Long userId, String cursor, int limit,
+                                                            RecommendationMode mode) {
+        if (userId == null) {
+            return new RecommendationFeedResponse(Collections.emptyList(), null);
+        }
+        int pageSize = Math.max(1, Math.min(limit, MAX_FEED_PAGE_SIZE));
+        String key = userId + "_" + mode;
+        RecommendationFeed.Cursor position = RecommendationFeed.Cursor.decode(cursor);
+        RecommendationFeed feed = feedCache.get(key, RecommendationFeed.class);
+        if (feed == null || position == null || feed.id() != position.feedId()) {
+            if (feed != null && position != null) {
+                logger.debug("Recommendation feed cursor for user {} refers to an expired list; ranking again", userId);
+            }
+            feed = position == null ? precomputedFeed(userId, mode, pageSize) : null;
+            if (feed == null) {
+                feed = rankFeed(userId, mode);
+            }
+            feedCache.put(key, feed);
+        }
+
+        int from = position != null ? position.offset() : 0;
+        if (!feed.complete() && from + pageSize > feed.size()) {
+            feed = feed.extend(rankFeed(userId, mode), feedDepth);
+            feedCache.put(key, feed);
+        }
+        from = Math.min(from, feed.size());
+        int to = Math.min(from + pageSize, feed.size());
+        List<Post> posts = hydrate(Arrays.asList(feed.postIds()).subList(from, to));
+        String nextCursor = to < feed.size() || !feed.complete()
+                ? new RecommendationFeed.Cursor(feed.id(), to).encode() : null;
+        return new RecommendationFeedResponse(posts, nextCursor);
+    }
+
+    public RecommendationFeedResponse getRecommendationFeed(String cursor, int limit, String mode) {
+        return getRecommendationFeed(getCurrentUserId(), cursor, limit, RecommendationMode.from(mode, getDefaultMode()));
+    }
+
+    private RecommendationFeed rankFeed(Long userId, RecommendationMode mode) {
+        RecommendationModel model = currentModel(mode);
+        int[] ranked = rank(model, userId, feedDepth, mode).indexes();
+        String[] postIds = new String[ranked.length];
+        for (int i = 0; i < ranked.length; i++) {
+            postIds[i] = model.postId(ranked[i]);
+        }
+        return new RecommendationFeed(ThreadLocalRandom.current().nextLong(), model.version(), postIds, true);
+    }
+
+    /**
+     * @return an incomplete feed of the user's precomputed recommendations, or null if they
+     * cannot fill the first page
+     */
+    private RecommendationFeed precomputedFeed(Long userId, RecommendationMode mode, int pageSize) {
+        RecommendationModel model = currentModel(mode);
+        List<String> postIds = precomputedPostIds(model, userId, mode);
+        if (postIds == null || postIds.size() < pageSize) {
+            return null;
+        }
+        return new RecommendationFeed(ThreadLocalRandom.current().nextLong(), model.version(),
+                postIds.toArray(String[]::new), false);
+    }
+
+    /**
+     * Loads the ranked posts with one query (collections are batch-fetched) and returns them in
+     * rank order.
+     */
+    protected List<Post> hydrate(RecommendationModel model, int[] rankedPostIndexes) {
+        List<String> ids = new ArrayList<>(rankedPostIndexes.length);
+        for (int postIndex : rankedPostIndexes) {
+            ids.add(model.postId(postIndex));
+        }
+        return hydrate(ids);
+    }
+
+    /**
+     * Loads posts by id and returns them in the given order, skipping any that have been deleted
+     * or have expired since they were ranked. Posts come from the shared {@code posts} cache; the misses are
+     * loaded with one query and cached, so popular posts are held once rather than per user.
+     */
+    @Transactional(readOnly = true)
+    public List<Post> hydrate(List<String> ids) {
+        Map<String, Post> postsById = new HashMap<>();
+        List<String> misses = new ArrayList<>();
+        for (String id : ids) {
+            Post cached = postCache.get(id, Post.class);
+            if (cached != null) {
+                postsById.put(id, cached);
+            } else {
+                misses.add(id);
             }
         }
+        if (!misses.isEmpty()) {
+            for (Post post : postRepository.findAllById(misses)) {
+                postsById.put(post.getId(), post);
+                postCache.put(post.getId(), post);
+            }
+        }
+        List<Post> posts = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            Post post = postsById.get(id);
+            if (post != null && !post.isExpired()) {
+                posts.add(post);
+            }
+        }
+        return posts;
+    }
+
+    /**
+     * Rebuilds the interaction matrix and content index from the database and publishes them.
+     * This runs once at startup; afterwards reaction and post events keep the state current,
+     * so it is only needed again as an explicit repair. Readers keep using the previous model
+     * until the new one is published; derived models are rebuilt in the background.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildRecommendationState() {
+        // Cold-start lists, user neighbourhoods and the default mode's model are always built; the rest on first use
+        Set<String> derived = new LinkedHashSet<>();
+        derived.add("cold-start");
+        derived.add("user-neighbours");
+        if (componentOf(getDefaultMode()) != null) {
+            derived.add(componentOf(getDefaultMode()));
+        }
+        synchronized (stateLock) {
+            long start = System.currentTimeMillis();
+            List<Reaction> allReactions = reactionRepository.findAll();
+            List<Post> allPosts = postRepository.findAll();
+
+            // One post dictionary shared by every structure, so a post has the same index everywhere
+            IdDictionary<String> postDictionary = new IdDictionary<>(allPosts.size());
+            Map<String, Set<String>> postFeatures = getPostContentFeatures(allPosts);
+            postFeatures.keySet().forEach(postDictionary::intern);
+
+            interactionMatrix = getUserPostInteractionMatrix(postDictionary, allReactions,
+                    commentRepository.findAllUserPostTimes());
+            // Interactions that have already decayed away are never loaded
+            interactionMatrix.prune(decayMinWeight, start);
+            Map<String, Long> postExpiry = new HashMap<>();
+            ExpiryIndex expiries = new ExpiryIndex();
+            for (Post post : allPosts) {
+                if (post != null && post.getId() != null && post.getExpiresAt() != null) {
+                    long expiresAt = toEpochMillis(post.getExpiresAt());
+                    postExpiry.put(post.getId(), expiresAt);
+                    expiries.schedule(post.getId(), expiresAt);
+                }
+            }
+            contentIndex = new ContentIndex(postDictionary, getPositiveInteractions(postDictionary, allReactions),
+                    postFeatures, postExpiry);
+            expiryIndex = expiries;
+            // Posts that expired before the rebuild are not candidates already; just drop them from the index
+            expiryIndex.pollExpired(System.currentTimeMillis());
+
+            // Derived models index the replaced post dictionary; rebuild the ones in use
+            if (itemSimilarityModel != null) {
+                derived.add("item-similarity");
+            }
+            if (neighbourIndex != null) {
+                derived.add("lsh");
+            }
+            if (alsModel != null) {
+                derived.add("als");
+            }
+            itemSimilarityModel = null;
+            neighbourIndex = null;
+            alsModel = null;
+            coldStartLists = null;
+            // Lists are keyed by user id and stay valid; reloading them also fills in users the rebuild added
+            userNeighbourhoods = null;
+            stateGeneration++;
+
+            long buildMillis = System.currentTimeMillis() - start;
+            meterRegistry.timer("recommendation.model.build", "component", "state")
+                    .record(buildMillis, TimeUnit.MILLISECONDS);
+            logger.info("Rebuilt recommendation state in {} ms: {} users, {} posts, {} interactions, {} keywords",
+                    buildMillis, interactionMatrix.userCount(),
+                    interactionMatrix.postCount(), interactionMatrix.interactionCount(),
+                    contentIndex.keywordCount());
+            publish();
+        }
+        derived.forEach(this::requestBuild);
+    }
+
+    /**
+     * Persists the time of the interaction inside the transaction that stored it, so precomputed
+     * rows ranked before it are recognised as stale after a restart too.
+     */
+    @EventListener
+    public void recordInteractionTime(ReactionChangedEvent event) {
+        if (event.userId() != null) {
+            userRepository.touchInteractionsChangedAt(event.userId(), LocalDateTime.now());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReactionChanged(ReactionChangedEvent event) {
+        if (event.userId() == null || event.postId() == null || event.reactionType() == null) {
+            return;
+        }
+        postCache.evict(event.postId()); // Reaction counters on the post changed
+        synchronized (stateLock) {
+            if (interactionMatrix == null) {
+                return; // The startup rebuild will read this reaction from the database
+            }
+            long occurredAt = event.occurredAt() != null
+                    ? toEpochMillis(event.occurredAt()) : System.currentTimeMillis();
+            interactionMatrix.add(event.userId(), event.postId(),
+                    (float) event.delta() * getReactionWeight(event.reactionType()), occurredAt);
+            if (isPositiveReaction(event.reactionType())) {
+                contentIndex.applyPositiveReaction(event.userId(), event.postId(), event.delta());
+            }
+            pendingUserEvictions.add(event.userId());
+            long version = nextVersion();
+            dirtyNeighbourhoods.merge(event.userId(), version, Math::max);
+            precomputedFreshness.userChanged(event.userId(), version);
+            stateChanged = true;
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostChanged(PostChangedEvent event) {
+        postCache.evict(event.postId());
+        synchronized (stateLock) {
+            if (interactionMatrix == null) {
+                return;
+            }
+            if (event.changeType() == PostChangedEvent.ChangeType.DELETED) {
+                interactionMatrix.removePost(event.postId());
+                contentIndex.removePost(event.postId());
+                expiryIndex.cancel(event.postId());
+                pendingPostEvictions.add(event.postId());
+            } else if (event.expiresAt() != null) {
+                long expiresAt = toEpochMillis(event.expiresAt());
+                contentIndex.putPost(event.postId(), event.categories(), event.hashtags(), expiresAt);
+                expiryIndex.schedule(event.postId(), expiresAt);
+            } else {
+                contentIndex.putPost(event.postId(), event.categories(), event.hashtags());
+                expiryIndex.cancel(event.postId());
+            }
+            stateChanged = true;
+        }
+    }
 
-        return finalScores.entrySet().stream()
-                .sorted(Map.Entry.<String, Double>comparingByValue().reversed())
-                .limit(numberOfRecommendations)
-                .map(entry -> postRepository.findById(entry.getKey()).orElse(null))
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
+    /**
+     * Takes the posts that expired since the last run out of the candidate pool, found from the
+     * head of the expiry index. Ranking already skips them from the exact expiry time; this frees
+     * their vectors and evicts the cached lists that contain them with the next publish.
+     */
+    @Scheduled(fixedDelayString = "${recommendation.expiry.sweep-ms:10000}")
+    public void expirePosts() {
+        synchronized (stateLock) {
+            if (contentIndex == null) {
+                return;
+            }
+            List<String> expired = expiryIndex.pollExpired(System.currentTimeMillis());
+            if (expired.isEmpty()) {
+                return;
+            }
+            for (String postId : expired) {
+                contentIndex.expirePost(postId);
+                pendingPostEvictions.add(postId);
+            }
+            stateChanged = true;
+            logger.debug("Removed {} expired posts from the recommendation candidates", expired.size());
+        }
+    }
+
+    /**
+     * @return whether the post is still known to the published model and has not expired
+     */
+    public boolean isRecommendable(String postId) {
+        return currentModel().isCandidate(postId, System.currentTimeMillis());
+    }
+
+    private static long toEpochMillis(LocalDateTime time) {
+        // Post.isExpired compares against LocalDateTime.now(), i.e. the system zone
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
     }
 
-    protected Map<Long, Map<String, Integer>> getUserPostInteractionMatrix() {
-        List<Reaction> allReactions = reactionRepository.findAll();
-        Map<Long, Map<String, Integer>> interactionMatrix = new HashMap<>();
+    private static long toEpochMillis(LocalDateTime time, long fallback) {
+        return time != null ? toEpochMillis(time) : fallback;
+    }
+
+    /**
+     * Drops interactions whose decayed weight fell below {@code recommendation.decay.min-weight},
+     * so posts nobody has touched in a long time stop showing up as CF candidates, and moves the
+     * decay epoch forward when stored weights have grown large. Decay itself needs no pass: it
+     * is one shared factor applied when scores are read.
+     */
+    @Scheduled(fixedDelayString = "${recommendation.decay.prune-ms:3600000}",
+            initialDelayString = "${recommendation.decay.prune-ms:3600000}")
+    public void pruneDecayedInteractions() {
+        synchronized (stateLock) {
+            if (interactionMatrix == null || !interactionMatrix.decay().isEnabled()) {
+                return;
+            }
+            long start = System.nanoTime();
+            TimeDecay before = interactionMatrix.decay();
+            int removed = interactionMatrix.prune(decayMinWeight, System.currentTimeMillis());
+            boolean rebased = interactionMatrix.decay() != before;
+            if (removed == 0 && !rebased) {
+                return;
+            }
+            stateChanged = true;
+            meterRegistry.timer("recommendation.model.build", "component", "prune")
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            logger.info("Pruned {} decayed interactions{}; {} remain", removed,
+                    rebased ? " and moved the decay epoch forward" : "", interactionMatrix.interactionCount());
+        }
+    }
+
+    /**
+     * Builds the matrix with every interaction weighted by its type and decayed by its age; the
+     * decay epoch is the time of the build.
+     */
+    protected InteractionMatrix getUserPostInteractionMatrix(IdDictionary<String> postDictionary,
+                                                             List<Reaction> allReactions, List<Object[]> comments) {
+        long now = System.currentTimeMillis();
+        InteractionMatrix.Builder builder = InteractionMatrix.builder(postDictionary)
+                .decay(new TimeDecay(decayHalfLifeMs, now));
 
         for (Reaction reaction : allReactions) {
             // Skip reactions with null user or post
@@ -87,11 +665,16 @@ public class RecommendationService {
                 continue;
             }
 
-            int weight = getReactionWeight(reactionType);
-            interactionMatrix.computeIfAbsent(userId, k -> new HashMap<>())
-                    .put(postId, interactionMatrix.get(userId).getOrDefault(postId, 0) + weight);
+            builder.add(userId, postId, getReactionWeight(reactionType), toEpochMillis(reaction.getCreatedAt(), now));
         }
-        return interactionMatrix;
+
+        // Comments written through CommentService count like a "comment" reaction
+        for (Object[] comment : comments) {
+            builder.add((Long) comment[0], (String) comment[1], getReactionWeight("comment"),
+                    toEpochMillis((LocalDateTime) comment[2], now));
+        }
+
+        return builder.build();
     }
 
     private int getReactionWeight(String reactionType) {
@@ -104,56 +687,8 @@ public class RecommendationService {
         };
     }
 
-    private double cosineSimilarity(Map<String, Integer> userInteractions1, Map<String, Integer> userInteractions2) {
-        Set<String> allPosts = new HashSet<>();
-        allPosts.addAll(userInteractions1.keySet());
-        allPosts.addAll(userInteractions2.keySet());
-
-        double dotProduct = 0;
-        double magnitude1 = 0;
-        double magnitude2 = 0;
-
-        for (String postId : allPosts) {
-            int rating1 = userInteractions1.getOrDefault(postId, 0);
-            int rating2 = userInteractions2.getOrDefault(postId, 0);
-
-            dotProduct += rating1 * rating2;
-            magnitude1 += Math.pow(rating1, 2);
-            magnitude2 += Math.pow(rating2, 2);
-        }
-
-        if (magnitude1 == 0 || magnitude2 == 0) {
-            return 0;
-        }
-
-        return dotProduct / (Math.sqrt(magnitude1) * Math.sqrt(magnitude2));
-    }
-
-    protected Map<String, Double> getCollaborativeScores(Long targetUserId) {
-        Map<Long, Map<String, Integer>> interactionMatrix = getCachedUserPostInteractionMatrix();
-        Map<String, Integer> targetUserInteractions = interactionMatrix.getOrDefault(targetUserId, new HashMap<>());
-        Map<String, Double> cfScores = new HashMap<>();
-
-        interactionMatrix.entrySet().parallelStream()
-            .filter(userEntry -> !userEntry.getKey().equals(targetUserId))
-            .forEach(userEntry -> {
-                double similarity = cosineSimilarity(targetUserInteractions, userEntry.getValue());
-                userEntry.getValue().entrySet().parallelStream()
-                    .filter(postEntry -> !targetUserInteractions.containsKey(postEntry.getKey()))
-                    .forEach(postEntry -> {
-                        String postId = postEntry.getKey();
-                        synchronized(cfScores) {
-                            cfScores.put(postId, cfScores.getOrDefault(postId, 0.0) + similarity * postEntry.getValue());
-                        }
-                    });
-            });
-
-        return cfScores;
-    }
-
-    protected Map<Long, Set<String>> getUserContentPreferences() {
-        List<Reaction> allReactions = reactionRepository.findAll();
-        Map<Long, Set<String>> userPreferences = new HashMap<>();
+    protected InteractionMatrix getPositiveInteractions(IdDictionary<String> postDictionary, List<Reaction> allReactions) {
+        InteractionMatrix.Builder builder = InteractionMatrix.builder(postDictionary);
         for (Reaction reaction : allReactions) {
             if (reaction == null) { // Check if reaction object itself is null
                 logger.warn("Encountered a null reaction object. Skipping.");
@@ -173,22 +708,13 @@ public class RecommendationService {
                     logger.warn("Reaction {} for user {} has a null post or post with null ID. Skipping.", reaction.getId(), userId);
                     continue;
                 }
-                // At this point, post and post.getId() are confirmed not null.
-                Set<String> keywords = new HashSet<>();
-                if (post.getCategories() != null) {
-                    keywords.addAll(post.getCategories());
-                }
-                if (post.getHashtags() != null) {
-                    keywords.addAll(post.getHashtags());
-                }
-                userPreferences.computeIfAbsent(userId, k -> new HashSet<>()).addAll(keywords);
+                builder.add(userId, post.getId(), 1);
             }
         }
-        return userPreferences;
+        return builder.build();
     }
 
-    protected Map<String, Set<String>> getPostContentFeatures() {
-        List<Post> allPosts = postRepository.findAll();
+    protected Map<String, Set<String>> getPostContentFeatures(List<Post> allPosts) {
         Map<String, Set<String>> postFeatures = new HashMap<>();
         for (Post post : allPosts) {
             // Add null check for post and its ID
@@ -196,14 +722,7 @@ public class RecommendationService {
                 logger.warn("Encountered a null post or post with null ID in findAll result. Skipping.");
                 continue;
             }
-            Set<String> keywords = new HashSet<>();
-            if (post.getCategories() != null) {
-                keywords.addAll(post.getCategories());
-            }
-            if (post.getHashtags() != null) {
-                keywords.addAll(post.getHashtags());
-            }
-            postFeatures.put(post.getId(), keywords);
+            postFeatures.put(post.getId(), ContentIndex.keywords(post.getCategories(), post.getHashtags()));
         }
         return postFeatures;
     }
@@ -212,45 +731,492 @@ public class RecommendationService {
         return List.of("like", "support", "bookmark").contains(reactionType.toLowerCase());
     }
 
-    private double contentSimilarity(Set<String> userKeywords, Set<String> postKeywords) {
-        if (userKeywords.isEmpty() || postKeywords.isEmpty()) {
-            return 0.0;
-        }
-        Set<String> intersection = new HashSet<>(userKeywords);
-        intersection.retainAll(postKeywords);
-        return (double) intersection.size() / Math.sqrt(userKeywords.size() * postKeywords.size());
-    }
-
-    protected Map<String, Double> getContentBasedScores(Long targetUserId) {
-        Map<Long, Set<String>> userPreferences = getCachedUserContentPreferences();
-        Map<String, Set<String>> postFeatures = getCachedPostContentFeatures();
-        Map<String, Double> cbScores = new HashMap<>();
-        
-        User currentUser = userRepository.findById(targetUserId).orElse(null);
-        if (currentUser == null || !userPreferences.containsKey(targetUserId)) {
-            return cbScores;
-        }
-        
-        Set<String> currentUserKeywords = userPreferences.get(targetUserId);
-        List<Post> allPosts = postRepository.findAll();
-        Set<String> interactedPostIds = reactionRepository.findByUserId(targetUserId).stream()
-                .map(reaction -> reaction.getPost().getId())
-                .collect(Collectors.toSet());
-
-        return allPosts.parallelStream()
-            .filter(post -> !interactedPostIds.contains(post.getId()))
-            .collect(Collectors.toConcurrentMap(
-                Post::getId,
-                post -> {
-                    Set<String> postKeywords = postFeatures.getOrDefault(post.getId(), new HashSet<>());
-                    return contentSimilarity(currentUserKeywords, postKeywords);
-                }
-            ));
+    public List<Post> getRecommendedPosts(int numberOfRecommendations) {
+        Long currentUserId = getCurrentUserId();
+        return getRecommendedPosts(currentUserId, clampRecommendationCount(numberOfRecommendations));
     }
 
-    public List<Post> getRecommendedPosts(int numberOfRecommendations) {
+    public List<Post> getRecommendedPosts(int numberOfRecommendations, String mode) {
         Long currentUserId = getCurrentUserId();
-        return getRecommendedPosts(currentUserId, numberOfRecommendations);
+        return getRecommendedPosts(currentUserId, clampRecommendationCount(numberOfRecommendations),
+                RecommendationMode.from(mode, getDefaultMode()));
+    }
+
+    /**
+     * Bounds a requested list length, which sizes the selection heap and is part of the cache key.
+     */
+    private static int clampRecommendationCount(int numberOfRecommendations) {
+        return Math.max(1, Math.min(numberOfRecommendations, MAX_RECOMMENDATIONS));
+    }
+
+    public RecommendationMode getDefaultMode() {
+        return RecommendationMode.from(configuredMode, RecommendationMode.HYBRID);
+    }
+
+    /**
+     * The published model. Never blocks once the state has been loaded at startup.
+     */
+    public RecommendationModel currentModel() {
+        RecommendationModel model = publishedModel.get();
+        if (model == null) {
+            ensureStateLoaded();
+            model = publishedModel.get();
+        }
+        return model;
+    }
+
+    /**
+     * The published model, or null before the state is first loaded. Unlike {@link #currentModel()}
+     * it never loads, so it is safe to call from event listeners on request threads.
+     */
+    public RecommendationModel currentModelIfLoaded() {
+        return publishedModel.get();
+    }
+
+    /**
+     * The published model, requesting a background build of the component the mode needs if it
+     * is missing. Until that build is published the mode falls back to user-based CF.
+     */
+    public RecommendationModel currentModel(RecommendationMode mode) {
+        RecommendationModel model = currentModel();
+        boolean missing = switch (mode) {
+            case ITEM_BASED -> model.itemModel() == null;
+            case APPROXIMATE -> model.neighbourIndex() == null;
+            case ALS -> model.alsModel() == null;
+            default -> false;
+        };
+        if (missing) {
+            requestBuild(componentOf(mode)); // Non-null: only modes with a component can be missing
+        }
+        return model;
+    }
+
+    /**
+     * Freezes and publishes the current state, giving bulk scoring its own version. Rows and
+     * keyword vectors are shared with the live state, so this costs one array copy per structure
+     * rather than a reload.
+     */
+    public RecommendationModel snapshotModel() {
+        ensureStateLoaded();
+        RecommendationModel model;
+        synchronized (stateLock) {
+            model = publish();
+        }
+        evictPublishedChanges();
+        return model;
+    }
+
+    /**
+     * Publishes the changes made by events since the last swap, if there are any.
+     */
+    @Scheduled(fixedDelayString = "${recommendation.model.publish-ms:1000}")
+    public void publishPendingChanges() {
+        synchronized (stateLock) {
+            if (stateChanged) {
+                publish();
+            }
+        }
+        evictPublishedChanges();
+    }
+
+    /**
+     * Freezes the back buffer into a new model and swaps it in, and hands the cached lists the
+     * published changes made stale to {@link #evictPublishedChanges()}. The version is the publish
+     * time in epoch milliseconds, strictly increasing, so it keeps increasing across restarts.
+     * Caller holds {@code stateLock}.
+     */
+    private RecommendationModel publish() {
+        long start = System.nanoTime();
+        long version = nextVersion();
+        RecommendationModel model = new RecommendationModel(version, interactionMatrix.snapshot(),
+                contentIndex.snapshot(), itemSimilarityModel, neighbourIndex, alsModel, userNeighbourhoods,
+                coldStartLists, collaborativeWeight, contentWeight);
+        publishedModel.set(model);
+        stateChanged = false;
+        meterRegistry.timer("recommendation.model.build", "component", "snapshot")
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        for (Iterator<Long> users = pendingUserEvictions.iterator(); users.hasNext(); ) {
+            publishedUserEvictions.add(users.next());
+            users.remove();
+        }
+        for (Iterator<String> posts = pendingPostEvictions.iterator(); posts.hasNext(); ) {
+            publishedPostEvictions.add(posts.next());
+            posts.remove();
+        }
+        return model;
+    }
+
+    /**
+     * Drops the cached lists made stale by changes that have been published, without holding
+     * {@code stateLock}. Runs after every scheduled publish, so changes published elsewhere are
+     * evicted within {@code recommendation.model.publish-ms}.
+     */
+    private void evictPublishedChanges() {
+        for (Iterator<Long> users = publishedUserEvictions.iterator(); users.hasNext(); ) {
+            evictRecommendations(users.next());
+            users.remove();
+        }
+        for (Iterator<String> posts = publishedPostEvictions.iterator(); posts.hasNext(); ) {
+            evictRecommendationsContaining(posts.next());
+            posts.remove();
+        }
+    }
+
+    /**
+     * @return the lowest version the next published model can have
+     */
+    private long nextVersion() {
+        RecommendationModel previous = publishedModel.get();
+        return Math.max(System.currentTimeMillis(), previous != null ? previous.version() + 1 : 0);
+    }
+
+    /**
+     * @return the derived component a mode scores with, or null if it needs none
+     */
+    private static String componentOf(RecommendationMode mode) {
+        return switch (mode) {
+            case ITEM_BASED -> "item-similarity";
+            case APPROXIMATE -> "lsh";
+            case ALS -> "als";
+            default -> null;
+        };
+    }
+
+    /**
+     * Queues one background build of a derived component and keeps it on the refresh schedule
+     * from then on; repeated requests while it is queued or running are ignored.
+     */
+    private void requestBuild(String component) {
+        Runnable build = buildOf(component);
+        if (build == null) {
+            return;
+        }
+        requestedComponents.add(component);
+        if (!pendingBuilds.add(component)) {
+            return;
+        }
+        logger.debug("Queued background build of the {} model", component);
+        modelBuilder.execute(() -> {
+            try {
+                build.run();
+            } catch (Exception e) {
+                logger.error("Failed to build the {} recommendation model: {}", component, e.getMessage(), e);
+            } finally {
+                pendingBuilds.remove(component);
+            }
+        });
+    }
+
+    private Runnable buildOf(String component) {
+        return switch (component) {
+            case "item-similarity" -> this::refreshItemSimilarityModel;
+            case "lsh" -> this::refreshNeighbourIndex;
+            case "als" -> this::refreshAlsModel;
+            case "cold-start" -> this::refreshColdStartLists;
+            case "user-neighbours" -> this::refreshUserNeighbourhoods;
+            default -> null;
+        };
+    }
+
+    /**
+     * Rebuilds a derived model on its schedule, unless no configured or requested mode has
+     * needed it yet; those are built on first use instead.
+     */
+    private void refreshIfRequested(String component) {
+        if (requestedComponents.contains(component)) {
+            buildOf(component).run();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${recommendation.item-similarity.refresh-ms:900000}",
+            initialDelayString = "${recommendation.item-similarity.initial-delay-ms:60000}")
+    public void scheduledItemSimilarityRefresh() {
+        refreshIfRequested("item-similarity");
+    }
+
+    @Scheduled(fixedDelayString = "${recommendation.lsh.refresh-ms:900000}",
+            initialDelayString = "${recommendation.lsh.initial-delay-ms:60000}")
+    public void scheduledNeighbourIndexRefresh() {
+        refreshIfRequested("lsh");
+    }
+
+    @Scheduled(fixedDelayString = "${recommendation.als.refresh-ms:3600000}",
+            initialDelayString = "${recommendation.als.initial-delay-ms:120000}")
+    public void scheduledAlsRefresh() {
+        refreshIfRequested("als");
+    }
+
+    /**
+     * Builds a derived model from the published matrix without holding {@code stateLock}, then
+     * installs it and publishes. A build that overlapped a full rebuild is dropped.
+     */
+    private <T> T buildDerived(String component, Function<InteractionMatrix, T> builder,
+                               Consumer<T> installer) {
+        long generation;
+        InteractionMatrix matrix;
+        synchronized (stateLock) {
+            generation = stateGeneration;
+            matrix = currentModel().matrix();
+        }
+        long start = System.nanoTime();
+        T built = onBuildPool(component, () -> builder.apply(matrix));
+        meterRegistry.timer("recommendation.model.build", "component", component)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        synchronized (stateLock) {
+            if (generation != stateGeneration) {
+                logger.info("Discarding {} model built before the last full rebuild", component);
+                return null;
+            }
+            installer.accept(built);
+            publish();
+        }
+        return built;
+    }
+
+    /**
+     * Runs a parallel model build on its own pool of {@code recommendation.model.build-parallelism}
+     * threads, so it neither competes with request threads on the common pool nor leaves per-thread
+     * state behind once it is shut down.
+     */
+    private <T> T onBuildPool(String component, Supplier<T> build) {
+        int threads = buildParallelism > 0 ? buildParallelism : Runtime.getRuntime().availableProcessors();
+        ForkJoinPool pool = new ForkJoinPool(threads, RecommendationService::newBuildWorker, null, false);
+        try {
+            return pool.submit(build::get).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while building the " + component + " model", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to build the " + component + " model", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static ForkJoinWorkerThread newBuildWorker(ForkJoinPool pool) {
+        ForkJoinWorkerThread worker = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        worker.setName("recommendation-build-" + worker.getPoolIndex());
+        return worker;
+    }
+
+    /**
+     * Recomputes the top-K neighbour list of every post.
+     */
+    public void refreshItemSimilarityModel() {
+        synchronized (itemSimilarityLock) {
+            long start = System.currentTimeMillis();
+            ItemSimilarityModel model = buildDerived("item-similarity",
+                    matrix -> ItemSimilarityModel.build(matrix, itemNeighbours), built -> itemSimilarityModel = built);
+            if (model != null) {
+                logger.info("Built item similarity model for {} posts (k={}) in {} ms",
+                        model.postCount(), itemNeighbours, System.currentTimeMillis() - start);
+            }
+        }
+    }
+
+    /**
+     * Re-sketches every user into the MinHash/LSH index used by {@link RecommendationMode#APPROXIMATE}.
+     * Users who changed since the last build are still found: queries sketch the current row.
+     */
+    public void refreshNeighbourIndex() {
+        synchronized (neighbourIndexLock) {
+            long start = System.currentTimeMillis();
+            MinHashIndex index = buildDerived("lsh",
+                    matrix -> MinHashIndex.build(matrix, lshBands, lshRows), built -> neighbourIndex = built);
+            if (index != null) {
+                logger.info("Built MinHash index for {} users ({} bands x {} rows, ~{} KB) in {} ms",
+                        index.userCount(), lshBands, lshRows, index.estimatedHeapBytes() / 1024,
+                        System.currentTimeMillis() - start);
+            }
+        }
+    }
+
+    /**
+     * Retrains the user and post embeddings used by {@link RecommendationMode#ALS}. Between
+     * trainings users are folded in from their current interactions; posts created since the last
+     * training score 0 on the collaborative side until the next one.
+     */
+    public void refreshAlsModel() {
+        synchronized (alsLock) {
+            long start = System.currentTimeMillis();
+            AlsModel model = buildDerived("als",
+                    matrix -> AlsModel.train(matrix, alsFactors, alsIterations, alsRegularization, alsAlpha),
+                    built -> alsModel = built);
+            if (model != null) {
+                logger.info("Trained ALS model for {} users and {} posts ({} factors, {} iterations, ~{} KB) in {} ms",
+                        model.userCount(), model.postCount(), alsFactors, alsIterations,
+                        model.estimatedHeapBytes() / 1024, System.currentTimeMillis() - start);
+            }
+        }
+    }
+
+    /**
+     * Recomputes the overall and per-category popularity lists served to cold-start users.
+     */
+    @Scheduled(fixedDelayString = "${recommendation.cold-start.refresh-ms:300000}",
+            initialDelayString = "${recommendation.cold-start.refresh-ms:300000}")
+    public void refreshColdStartLists() {
+        synchronized (coldStartLock) {
+            long start = System.currentTimeMillis();
+            ColdStartLists lists = buildDerived("cold-start",
+                    matrix -> ColdStartLists.build(matrix, postRepository.findAllPostCategoryPairs(),
+                            coldStartPerCategory, coldStartMinInteractions),
+                    built -> coldStartLists = built);
+            if (lists != null) {
+                logger.info("Built cold-start lists for {} categories in {} ms",
+                        lists.categoryCount(), System.currentTimeMillis() - start);
+            }
+        }
+    }
+
+    /**
+     * Keeps the stored top-N neighbour list of every user current for user-based CF.
+     * <ul>
+     *   <li>The first run loads the persisted lists and computes the missing ones.</li>
+     *   <li>Later runs recompute the lists of users who reacted since the previous run and patch
+     *   their new similarity into their co-reacting users' lists.</li>
+     *   <li>Every {@code recommendation.neighbours.full-sweep-ms} all lists are recomputed.</li>
+     * </ul>
+     * Lists are computed against a model published at the start of the run, and only users whose
+     * reactions that model holds are taken off the dirty set; later reactions wait for the next
+     * run. Updates go into a copy of the published lists that replaces them with a new publish,
+     * so a published model never changes. Changed lists are written back to {@code user_neighbours}.
+     */
+    @Scheduled(fixedDelayString = "${recommendation.neighbours.refresh-ms:60000}",
+            initialDelayString = "${recommendation.neighbours.refresh-ms:60000}")
+    public void refreshUserNeighbourhoods() {
+        synchronized (neighbourhoodLock) {
+            long start = System.currentTimeMillis();
+            ensureStateLoaded();
+            RecommendationModel model;
+            long generation;
+            UserNeighbourhoods published;
+            synchronized (stateLock) {
+                model = stateChanged ? publish() : publishedModel.get();
+                generation = stateGeneration;
+                published = userNeighbourhoods;
+            }
+            InteractionMatrix matrix = model.matrix();
+            boolean fullSweep = published != null && start - lastNeighbourhoodSweepAt >= neighbourhoodFullSweepMs;
+            UserNeighbourhoods neighbourhoods;
+            Set<Long> changedUsers = new HashSet<>();
+
+            if (published == null) {
+                neighbourhoods = loadUserNeighbourhoods();
+                List<Long> missing = new ArrayList<>();
+                for (int userIndex = 0; userIndex < matrix.userCount(); userIndex++) {
+                    Long userId = matrix.userId(userIndex);
+                    if (!neighbourhoods.contains(userId) && !matrix.row(userIndex).isEmpty()) {
+                        missing.add(userId);
+                    }
+                }
+                // Mostly missing, e.g. on the first deployment: a parallel build is cheaper
+                fullSweep = missing.size() > neighbourhoods.userCount();
+                if (!fullSweep) {
+                    lastNeighbourhoodSweepAt = start;
+                    for (Long userId : missing) {
+                        changedUsers.addAll(neighbourhoods.refresh(matrix, userId));
+                    }
+                }
+            } else {
+                neighbourhoods = published.copy();
+            }
+            List<Long> dirtyUsers = drainDirtyNeighbourhoods(model.version());
+            if (fullSweep) {
+                neighbourhoods = onBuildPool("user-neighbours", () -> UserNeighbourhoods.build(matrix, userNeighbourCount));
+                lastNeighbourhoodSweepAt = start;
+                for (int userIndex = 0; userIndex < matrix.userCount(); userIndex++) {
+                    if (neighbourhoods.contains(matrix.userId(userIndex))) {
+                        changedUsers.add(matrix.userId(userIndex));
+                    }
+                }
+            } else {
+                for (Long userId : dirtyUsers) {
+                    changedUsers.addAll(neighbourhoods.refresh(matrix, userId));
+                }
+            }
+            if (published == null || !changedUsers.isEmpty()) {
+                synchronized (stateLock) {
+                    if (generation != stateGeneration) {
+                        // The lists are reloaded against the rebuilt state; the rows below still stand
+                        logger.info("Not installing user neighbourhoods computed before the last full rebuild");
+                    } else {
+                        userNeighbourhoods = neighbourhoods;
+                        publish();
+                    }
+                }
+            }
+            int written = saveUserNeighbourhoods(neighbourhoods, changedUsers);
+
+            long buildMillis = System.currentTimeMillis() - start;
+            meterRegistry.timer("recommendation.model.build", "component", "user-neighbours")
+                    .record(buildMillis, TimeUnit.MILLISECONDS);
+            logger.info("Refreshed user neighbourhoods ({}) in {} ms: {} lists, {} written",
+                    fullSweep ? "full" : "incremental", buildMillis, neighbourhoods.userCount(), written);
+        }
+    }
+
+    /**
+     * Takes the users whose latest reaction is in the model of {@code version} off the dirty set;
+     * users who reacted again since stay on it.
+     */
+    private List<Long> drainDirtyNeighbourhoods(long version) {
+        List<Long> users = new ArrayList<>();
+        for (Map.Entry<Long, Long> dirty : dirtyNeighbourhoods.entrySet()) {
+            if (dirty.getValue() <= version && dirtyNeighbourhoods.remove(dirty.getKey(), dirty.getValue())) {
+                users.add(dirty.getKey());
+            }
+        }
+        return users;
+    }
+
+    private UserNeighbourhoods loadUserNeighbourhoods() {
+        UserNeighbourhoods neighbourhoods = new UserNeighbourhoods(userNeighbourCount);
+        for (UserNeighbourhood row : userNeighbourhoodRepository.findAll()) {
+            neighbourhoods.put(row.getUserId(),
+                    new UserNeighbourhoods.Neighbourhood(row.getNeighbourIds(), row.getSimilarities()));
+        }
+        return neighbourhoods;
+    }
+
+    /**
+     * Writes the lists of the given users, replacing their rows
+     * {@value #NEIGHBOURHOOD_WRITE_CHUNK_SIZE} users per transaction; rows of users who no longer
+     * have a list are deleted.
+     *
+     * @return number of rows written or deleted
+     */
+    private int saveUserNeighbourhoods(UserNeighbourhoods neighbourhoods, Set<Long> userIds) {
+        List<Long> chunk = new ArrayList<>(Math.min(userIds.size(), NEIGHBOURHOOD_WRITE_CHUNK_SIZE));
+        List<UserNeighbourhood> rows = new ArrayList<>(chunk.size());
+        int written = 0;
+        for (Long userId : userIds) {
+            chunk.add(userId);
+            UserNeighbourhoods.Neighbourhood neighbourhood = neighbourhoods.get(userId);
+            if (neighbourhood != null) {
+                rows.add(new UserNeighbourhood(userId, neighbourhood.userIds(), neighbourhood.similarities()));
+            }
+            if (chunk.size() == NEIGHBOURHOOD_WRITE_CHUNK_SIZE) {
+                userNeighbourhoodRepository.replaceAll(chunk, rows);
+                written += chunk.size();
+                chunk.clear();
+                rows.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            userNeighbourhoodRepository.replaceAll(chunk, rows);
+            written += chunk.size();
+        }
+        return written;
+    }
+
+    /**
+     * @return seconds since the published model was frozen, or NaN before the first publish
+     */
+    public double getModelAgeSeconds() {
+        RecommendationModel model = publishedModel.get();
+        return model != null ? (System.currentTimeMillis() - model.version()) / 1000.0 : Double.NaN;
     }
 
     private Long getCurrentUserId() {
@@ -260,25 +1226,57 @@ public class RecommendationService {
                 .orElse(null);
     }
 
-    @Cacheable(value = "userInteractionMatrix", key = "'all_users'")
-    public Map<Long, Map<String, Integer>> getCachedUserPostInteractionMatrix() {
-        return getUserPostInteractionMatrix();
+    public InteractionMatrix getCachedUserPostInteractionMatrix() {
+        ensureStateLoaded();
+        return interactionMatrix;
     }
 
-    @Cacheable(value = "userPreferences", key = "'all_preferences'")
     public Map<Long, Set<String>> getCachedUserContentPreferences() {
-        return getUserContentPreferences();
+        return currentModel().content().userPreferences();
     }
 
-    @Cacheable(value = "postFeatures", key = "'all_posts'")
     public Map<String, Set<String>> getCachedPostContentFeatures() {
-        return getPostContentFeatures();
+        return currentModel().content().postFeatures();
     }
 
-    @CacheEvict(value = {"recommendations", "userInteractionMatrix", "userPreferences", "postFeatures"}, allEntries = true)
-    @Scheduled(fixedRate = 3600000)
-    public void clearRecommendationCache() {
-        // Cache will be cleared automatically
+    private void ensureStateLoaded() {
+        if (publishedModel.get() == null) {
+            synchronized (stateLock) {
+                if (publishedModel.get() == null) {
+                    rebuildRecommendationState();
+                }
+            }
+        }
     }
-}
 
+    /**
+     * Drops every cached list of one user (all sizes and modes). Other users' entries are kept;
+     * they expire by the cache's own TTL.
+     */
+    public void evictRecommendations(Long userId) {
+        recommendationKeys.removeUser(userId).forEach(recommendationCache::evict);
+    }
+
+    /**
+     * Drops the cached lists that contain a post, e.g. after it was deleted.
+     */
+    public void evictRecommendationsContaining(String postId) {
+        recommendationKeys.removePost(postId).forEach(recommendationCache::evict);
+    }
+
+    /**
+     * Forgets the indexed keys of lists the cache expired or dropped for size, so the index does
+     * not outgrow the cache.
+     */
+    @Scheduled(fixedDelayString = "${recommendation.cache.index-prune-ms:600000}",
+            initialDelayString = "${recommendation.cache.index-prune-ms:600000}")
+    public void pruneRecommendationKeys() {
+        Map<Object, Object> cached = recommendationsCache();
+        recommendationKeys.retain(cached::containsKey);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Object, Object> recommendationsCache() {
+        return ((com.github.benmanes.caffeine.cache.Cache<Object, Object>) recommendationCache.getNativeCache()).asMap();
+    }
+}
@@ -0,0 +1,210 @@
+package com.dawillygene.ConfideHubs.service;
+
+import com.dawillygene.ConfideHubs.event.PostChangedEvent;
+import com.dawillygene.ConfideHubs.event.ReactionChangedEvent;
+import com.dawillygene.ConfideHubs.event.TrendingScoreChangedEvent;
+import com.dawillygene.ConfideHubs.model.Post;
+import com.dawillygene.ConfideHubs.repository.CommentRepository;
+import com.dawillygene.ConfideHubs.repository.PostRepository;
+import com.dawillygene.ConfideHubs.repository.ReactionRepository;
+import com.dawillygene.ConfideHubs.service.trending.EngagementWindows;
+import com.dawillygene.ConfideHubs.service.trending.TrendingLeaderboard;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Serves the trending feed from an in-memory {@link TrendingLeaderboard} of the top
+ * {@code trending.leaderboard.size} non-expired posts, so a page view loads its posts by id
+ * instead of sorting the posts table and counting it, and the hot feed from the
+ * {@link EngagementWindows} of recent reactions and comments.
+ * <p>
+ * The board follows reactions through {@link TrendingScoreChangedEvent} and post creation,
+ * edits and deletion through {@link PostChangedEvent}; expired posts are skipped when a page is
+ * read. Every {@code trending.leaderboard.reload-ms} it is reloaded from one top-N query, which
+ * also picks up the hourly reconciliation and anything the events missed. Pages the board cannot
+ * answer exactly, before the first load or deeper than it reaches, fall back to the database.
+ * <p>
+ * The engagement windows are seeded with the last 24 hours of reactions and comments at startup
+ * and then follow {@link ReactionChangedEvent}. The hot order is recomputed from them every
+ * {@code posts.hot.refresh-ms}, so a burst of reactions reaches the top within seconds.
+ */
+@Service
+public class TrendingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrendingService.class);
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private ReactionRepository reactionRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    private final TrendingLeaderboard leaderboard;
+
+    private final EngagementWindows engagement = new EngagementWindows();
+
+    @Value("${posts.hot.size:1000}")
+    private int hotSize;
+
+    // Ids of the hottest posts, replaced as a whole by rankHotPosts
+    private volatile List<String> hotPosts = List.of();
+
+    // Non-expired posts as of the last reload, adjusted by creations and deletions since; reported as the page total
+    private final AtomicLong postCount = new AtomicLong();
+
+    public TrendingService(@Value("${trending.leaderboard.size:5000}") int leaderboardSize) {
+        this.leaderboard = new TrendingLeaderboard(leaderboardSize);
+    }
+
+    /**
+     * @return the page of non-expired posts in trending order, or null if the leaderboard cannot
+     * serve it exactly
+     */
+    public Page<Post> getTrendingPosts(Pageable pageable) {
+        LocalDateTime now = LocalDateTime.now();
+        List<String> ids = leaderboard.page((int) pageable.getOffset(), pageable.getPageSize(), now);
+        if (ids == null) {
+            return null;
+        }
+        List<Post> posts = loadInOrder(ids);
+        long total = Math.max(postCount.get(), pageable.getOffset() + posts.size());
+        return new PageImpl<>(posts, pageable, total);
+    }
+
+    /**
+     * @return the page of non-expired posts by hot score; posts without engagement in the last
+     * 24 hours are not in the hot feed
+     */
+    public Page<Post> getHotPosts(Pageable pageable) {
+        List<String> ranked = hotPosts;
+        int from = (int) Math.min(pageable.getOffset(), ranked.size());
+        int to = Math.min(from + pageable.getPageSize(), ranked.size());
+        return new PageImpl<>(loadInOrder(ranked.subList(from, to)), pageable, ranked.size());
+    }
+
+    private List<Post> loadInOrder(List<String> ids) {
+        Map<String, Post> byId = new HashMap<>();
+        for (Post post : postRepository.findAllById(ids)) {
+            byId.put(post.getId(), post);
+        }
+        List<Post> posts = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            Post post = byId.get(id);
+            if (post != null && !post.isExpired()) {
+                posts.add(post);
+            }
+        }
+        return posts;
+    }
+
+    @Scheduled(fixedDelayString = "${trending.leaderboard.reload-ms:60000}")
+    public void reload() {
+        long start = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now();
+        leaderboard.beginLoad();
+        List<TrendingLeaderboard.Entry> top = new ArrayList<>();
+        for (Object[] row : postRepository.findTrendingEntries(now, PageRequest.of(0, leaderboard.capacity() + 1))) {
+            Double score = (Double) row[1];
+            top.add(new TrendingLeaderboard.Entry((String) row[0], score != null ? score : 0,
+                    (LocalDateTime) row[2], (LocalDateTime) row[3]));
+        }
+        postCount.set(postRepository.countNonExpiredPosts(now));
+        leaderboard.load(top);
+        logger.debug("Trending leaderboard reloaded with {} of {} posts in {} ms",
+                leaderboard.size(), postCount.get(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedEngagementWindows() {
+        LocalDateTime since = LocalDateTime.now().minusHours(24);
+        int events = 0;
+        for (Object[] row : reactionRepository.findPostTypeTimesSince(since)) {
+            engagement.add((String) row[0], PostService.trendingWeight((String) row[1]),
+                    toEpochMillis((LocalDateTime) row[2]));
+            events++;
+        }
+        double commentWeight = PostService.trendingWeight("comment");
+        for (Object[] row : commentRepository.findPostTimesSince(since)) {
+            engagement.add((String) row[0], commentWeight, toEpochMillis((LocalDateTime) row[1]));
+            events++;
+        }
+        rankHotPosts();
+        logger.info("Engagement windows seeded with {} events on {} posts", events, engagement.size());
+    }
+
+    @Scheduled(fixedDelayString = "${posts.hot.refresh-ms:5000}")
+    public void rankHotPosts() {
+        List<EngagementWindows.Ranked> ranked = engagement.rank(System.currentTimeMillis(), hotSize);
+        List<String> ids = new ArrayList<>(ranked.size());
+        for (EngagementWindows.Ranked post : ranked) {
+            ids.add(post.postId());
+        }
+        hotPosts = ids;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReactionChanged(ReactionChangedEvent event) {
+        if (event.postId() == null || event.reactionType() == null) {
+            return;
+        }
+        // Counted when it happens, also for a removal, so that toggling a reaction cancels out
+        engagement.add(event.postId(), event.delta() * PostService.trendingWeight(event.reactionType()),
+                System.currentTimeMillis());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTrendingScoreChanged(TrendingScoreChangedEvent event) {
+        leaderboard.update(new TrendingLeaderboard.Entry(event.postId(), event.trendingScore(),
+                event.createdAt(), event.expiresAt()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostChanged(PostChangedEvent event) {
+        switch (event.changeType()) {
+            case CREATED -> {
+                leaderboard.update(new TrendingLeaderboard.Entry(event.postId(),
+                        PostService.initialTrendingScore(event.createdAt()), event.createdAt(), event.expiresAt()));
+                postCount.incrementAndGet();
+            }
+            case UPDATED -> {
+                // Edits keep the score but may change the expiry
+                TrendingLeaderboard.Entry entry = leaderboard.get(event.postId());
+                if (entry != null) {
+                    leaderboard.update(new TrendingLeaderboard.Entry(entry.postId(), entry.score(),
+                            entry.createdAt(), event.expiresAt()));
+                }
+            }
+            case DELETED -> {
+                leaderboard.remove(event.postId());
+                engagement.remove(event.postId());
+                postCount.updateAndGet(count -> Math.max(0, count - 1));
+            }
+        }
+    }
+
+    private static long toEpochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
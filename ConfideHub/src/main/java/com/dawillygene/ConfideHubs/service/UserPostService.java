@@ -1,6 +1,7 @@
 package com.dawillygene.ConfideHubs.service;
 
 import com.dawillygene.ConfideHubs.controllers.GeminiModelController;
+import com.dawillygene.ConfideHubs.event.PostChangedEvent;
 import com.dawillygene.ConfideHubs.model.Post;
 import com.dawillygene.ConfideHubs.model.Post.ExpiryDuration;
 import com.dawillygene.ConfideHubs.model.User;
@@ -11,6 +12,7 @@ import com.dawillygene.ConfideHubs.repository.ReactionRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -50,6 +52,9 @@ public class UserPostService {
     @Autowired
     private GeminiModelController geminiModelController;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     /**
      * Get all posts for the current authenticated user
      * @param page page number (0-based)
@@ -131,6 +136,7 @@ public class UserPostService {
         }
 
         Post savedPost = postRepository.save(post);
+        eventPublisher.publishEvent(PostChangedEvent.of(savedPost, PostChangedEvent.ChangeType.CREATED));
         savedPost.setDisplayUsername(anonymousUsername);
 
         logger.info("Created new post with ID: {} for user: {}", savedPost.getId(), currentUser.getUsername());
@@ -174,6 +180,7 @@ public class UserPostService {
                     }
 
                     Post savedPost = postRepository.save(existingPost);
+                    eventPublisher.publishEvent(PostChangedEvent.of(savedPost, PostChangedEvent.ChangeType.UPDATED));
 
                     // Set display username
                     String anonymousUsername = anonymousUsernameService.generateDeterministicUsername(savedPost.getId());
@@ -206,6 +213,7 @@ public class UserPostService {
                 
                 // Finally, delete the post itself
                 postRepository.deleteById(postId);
+                eventPublisher.publishEvent(PostChangedEvent.deleted(postId));
                 logger.info("Deleted post with ID: {} for user: {}", postId, getCurrentUser().getUsername());
                 return true;
             } catch (Exception e) {
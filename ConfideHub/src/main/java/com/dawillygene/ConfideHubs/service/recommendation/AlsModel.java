@@ -0,0 +1,259 @@
+package com.dawillygene.ConfideHubs.service.recommendation;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Implicit-feedback matrix factorisation trained with alternating least squares
+ * (Hu, Koren &amp; Volinsky). Every cell of the interaction matrix is read as preference 1 with
+ * confidence {@code 1 + alpha × weight}; missing cells are preference 0 with confidence 1.
+ * Users and posts get dense embeddings of {@code factors} floats, stored row-major in one
+ * {@code float[]} each, and a post's score for a user is the dot product of their embeddings.
+ * <p>
+ * Serving does not look at other users: the user's vector is folded in from their current row
+ * against the fixed post embeddings (one small least-squares solve), so reactions made after
+ * training already count.
+ */
+public final class AlsModel {
+
+    private final int factors;
+    private final double regularization;
+    private final double alpha;
+    private final float[] userFactors;
+    private final float[] postFactors;
+    private final int userCount;
+    private final int postCount;
+    // Gram matrix of the post embeddings plus the regulariser, shared by every fold-in
+    private final double[] postGram;
+    private final long builtAt;
+
+    private AlsModel(int factors, double regularization, double alpha, float[] userFactors, float[] postFactors,
+                     int userCount, int postCount) {
+        this.factors = factors;
+        this.regularization = regularization;
+        this.alpha = alpha;
+        this.userFactors = userFactors;
+        this.postFactors = postFactors;
+        this.userCount = userCount;
+        this.postCount = postCount;
+        this.postGram = gram(postFactors, postCount, factors, regularization);
+        this.builtAt = System.currentTimeMillis();
+    }
+
+    /**
+     * Trains embeddings for every user and post currently in the matrix. Each half-iteration
+     * solves all users (then all posts) in parallel chunks on the caller's fork/join pool.
+     */
+    public static AlsModel train(InteractionMatrix matrix, int factors, int iterations,
+                                 double regularization, double alpha) {
+        if (factors < 1 || iterations < 1) {
+            throw new IllegalArgumentException("ALS factors and iterations must be positive");
+        }
+        // The matrix keeps changing while we train; rows and posts added after this point are ignored
+        int userCount = matrix.userCount();
+        int postCount = matrix.postCount();
+        float[] userFactors = new float[userCount * factors];
+        float[] postFactors = new float[postCount * factors];
+        Random random = new Random(17);
+        for (int i = 0; i < postFactors.length; i++) {
+            postFactors[i] = (float) (random.nextGaussian() * 0.01);
+        }
+
+        // Confidence grows with the decayed weight, stored weight × scale
+        double confidenceRate = alpha * matrix.weightScale(System.currentTimeMillis());
+        for (int iteration = 0; iteration < iterations; iteration++) {
+            double[] postGram = gram(postFactors, postCount, factors, regularization);
+            Chunks.forEach(userCount, (from, to) -> {
+                Solver solver = new Solver(factors);
+                for (int user = from; user < to; user++) {
+                    solver.solve(matrix.row(user), postGram, postFactors, postCount, confidenceRate,
+                            userFactors, user * factors);
+                }
+            });
+            double[] userGram = gram(userFactors, userCount, factors, regularization);
+            Chunks.forEach(postCount, (from, to) -> {
+                Solver solver = new Solver(factors);
+                for (int post = from; post < to; post++) {
+                    solver.solve(matrix.column(post), userGram, userFactors, userCount, confidenceRate,
+                            postFactors, post * factors);
+                }
+            });
+        }
+        return new AlsModel(factors, regularization, alpha, userFactors, postFactors, userCount, postCount);
+    }
+
+    /**
+     * Embedding of a user with the given interactions, solved against the trained post embeddings.
+     */
+    public float[] userVector(SparseRow history) {
+        return userVector(history, 1.0);
+    }
+
+    /**
+     * Same as {@link #userVector(SparseRow)} for a history in stored form, with the matrix's
+     * current {@link InteractionMatrix#weightScale(long)}.
+     */
+    public float[] userVector(SparseRow history, double weightScale) {
+        float[] vector = new float[factors];
+        new Solver(factors).solve(history, postGram, postFactors, postCount, alpha * weightScale, vector, 0);
+        return vector;
+    }
+
+    /**
+     * @return the predicted preference of the user for the post; 0 for posts newer than the model
+     */
+    public double score(float[] userVector, int postIndex) {
+        if (postIndex < 0 || postIndex >= postCount) {
+            return 0.0;
+        }
+        int offset = postIndex * factors;
+        double dot = 0;
+        for (int f = 0; f < factors; f++) {
+            dot += (double) userVector[f] * postFactors[offset + f];
+        }
+        return dot;
+    }
+
+    public int factors() {
+        return factors;
+    }
+
+    public double regularization() {
+        return regularization;
+    }
+
+    public int userCount() {
+        return userCount;
+    }
+
+    public int postCount() {
+        return postCount;
+    }
+
+    public long getBuiltAt() {
+        return builtAt;
+    }
+
+    public long estimatedHeapBytes() {
+        return 64L + 16 + 4L * userFactors.length + 16 + 4L * postFactors.length + 16 + 8L * postGram.length;
+    }
+
+    /**
+     * {@code VᵀV + λI} for the first {@code count} rows of the embedding array {@code v}.
+     */
+    private static double[] gram(float[] v, int count, int factors, double regularization) {
+        double[] gram = new double[factors * factors];
+        for (int row = 0; row < count; row++) {
+            int offset = row * factors;
+            for (int a = 0; a < factors; a++) {
+                double va = v[offset + a];
+                if (va == 0) {
+                    continue;
+                }
+                for (int b = a; b < factors; b++) {
+                    gram[a * factors + b] += va * v[offset + b];
+                }
+            }
+        }
+        for (int a = 0; a < factors; a++) {
+            for (int b = 0; b < a; b++) {
+                gram[a * factors + b] = gram[b * factors + a];
+            }
+            gram[a * factors + a] += regularization;
+        }
+        return gram;
+    }
+
+    /**
+     * Scratch space for least-squares solves, reused within one chunk of users or posts.
+     */
+    private static final class Solver {
+
+        private final int factors;
+        private final double[] a;
+        private final double[] b;
+
+        Solver(int factors) {
+            this.factors = factors;
+            this.a = new double[factors * factors];
+            this.b = new double[factors];
+        }
+
+        /**
+         * Solves {@code (YᵀY + λI + Σ (c − 1) y yᵀ) x = Σ c y} over the non-zero cells of
+         * {@code line} and writes {@code x} to {@code out[outOffset ..]}.
+         *
+         * @param gram    {@code YᵀY + λI} of the fixed side
+         * @param fixed   embeddings of the fixed side, row-major
+         * @param limit   number of rows of {@code fixed}; cells beyond it are ignored
+         */
+        void solve(SparseRow line, double[] gram, float[] fixed, int limit, double alpha,
+                   float[] out, int outOffset) {
+            System.arraycopy(gram, 0, a, 0, a.length);
+            Arrays.fill(b, 0);
+            boolean any = false;
+            for (int i = 0; i < line.size(); i++) {
+                int other = line.indexAt(i);
+                if (other >= limit) {
+                    continue;
+                }
+                any = true;
+                double confidence = 1 + alpha * line.valueAt(i);
+                int offset = other * factors;
+                for (int p = 0; p < factors; p++) {
+                    double yp = fixed[offset + p];
+                    b[p] += confidence * yp;
+                    double scaled = (confidence - 1) * yp;
+                    for (int q = 0; q < factors; q++) {
+                        a[p * factors + q] += scaled * fixed[offset + q];
+                    }
+                }
+            }
+            if (!any) {
+                Arrays.fill(out, outOffset, outOffset + factors, 0f);
+                return;
+            }
+            choleskySolve();
+            for (int p = 0; p < factors; p++) {
+                out[outOffset + p] = (float) b[p];
+            }
+        }
+
+        /**
+         * In-place Cholesky factorisation of {@code a} followed by forward and back substitution;
+         * the solution replaces {@code b}.
+         */
+        private void choleskySolve() {
+            int n = factors;
+            for (int j = 0; j < n; j++) {
+                double diagonal = a[j * n + j];
+                for (int k = 0; k < j; k++) {
+                    diagonal -= a[j * n + k] * a[j * n + k];
+                }
+                diagonal = Math.sqrt(Math.max(diagonal, 1e-12));
+                a[j * n + j] = diagonal;
+                for (int i = j + 1; i < n; i++) {
+                    double sum = a[i * n + j];
+                    for (int k = 0; k < j; k++) {
+                        sum -= a[i * n + k] * a[j * n + k];
+                    }
+                    a[i * n + j] = sum / diagonal;
+                }
+            }
+            for (int i = 0; i < n; i++) {
+                double sum = b[i];
+                for (int k = 0; k < i; k++) {
+                    sum -= a[i * n + k] * b[k];
+                }
+                b[i] = sum / a[i * n + i];
+            }
+            for (int i = n - 1; i >= 0; i--) {
+                double sum = b[i];
+                for (int k = i + 1; k < n; k++) {
+                    sum -= a[k * n + i] * b[k];
+                }
+                b[i] = sum / a[i * n + i];
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.dawillygene.ConfideHubs.service.recommendation;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.IntStream;
+
+/**
+ * Splits {@code [0, count)} into contiguous chunks processed in parallel on the calling
+ * fork/join pool, for builds that need scratch space per worker: each chunk allocates its own,
+ * so nothing stays attached to pooled threads after the build.
+ */
+final class Chunks {
+
+    // Enough chunks per thread for work stealing to even out uneven ones
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    interface Body {
+        void run(int from, int to);
+    }
+
+    private Chunks() {
+    }
+
+    static void forEach(int count, Body body) {
+        ForkJoinPool pool = ForkJoinTask.inForkJoinPool() ? ForkJoinTask.getPool() : ForkJoinPool.commonPool();
+        int chunkCount = pool.getParallelism() * CHUNKS_PER_THREAD;
+        int chunkSize = Math.max(1, (count + chunkCount - 1) / chunkCount);
+        IntStream.range(0, (count + chunkSize - 1) / chunkSize).parallel().forEach(chunk ->
+                body.run(chunk * chunkSize, Math.min(count, (chunk + 1) * chunkSize)));
+    }
+}
@@ -0,0 +1,135 @@
+package com.dawillygene.ConfideHubs.service.recommendation;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.IntPredicate;
+
+/**
+ * Most popular posts overall and per category, for users with too little history for
+ * collaborative filtering. Popularity is a post's total interaction weight in the matrix.
+ * <p>
+ * Serving merges the lists of the user's interests plus the overall list, so it reads at most
+ * {@code (interests + 1) × perCategory} entries whatever the number of posts.
+ */
+public final class ColdStartLists {
+
+    private static final int[] NONE = new int[0];
+
+    private final int minInteractions;
+    private final float[] popularity;
+    private final int[] overall;
+    private final Map<String, int[]> byCategory;
+    private final long builtAt;
+
+    private ColdStartLists(int minInteractions, float[] popularity, int[] overall, Map<String, int[]> byCategory) {
+        this.minInteractions = minInteractions;
+        this.popularity = popularity;
+        this.overall = overall;
+        this.byCategory = byCategory;
+        this.builtAt = System.currentTimeMillis();
+    }
+
+    /**
+     * @param postCategories  (postId, category) pairs
+     * @param perCategory     length of each list
+     * @param minInteractions users with fewer interactions than this are served from the lists
+     */
+    public static ColdStartLists build(InteractionMatrix matrix, List<Object[]> postCategories, int perCategory,
+                                       int minInteractions) {
+        int postCount = matrix.postCount();
+        float[] popularity = new float[postCount];
+        TopK overall = new TopK(perCategory);
+        for (int postIndex = 0; postIndex < postCount; postIndex++) {
+            SparseRow users = matrix.column(postIndex);
+            float total = 0;
+            for (int i = 0; i < users.size(); i++) {
+                total += users.valueAt(i);
+            }
+            popularity[postIndex] = Math.max(0, total);
+            if (total > 0) {
+                overall.offer(postIndex, total);
+            }
+        }
+
+        Map<String, TopK> categoryHeaps = new HashMap<>();
+        for (Object[] pair : postCategories) {
+            int postIndex = matrix.postIndex((String) pair[0]);
+            if (postIndex < 0 || postIndex >= postCount || pair[1] == null) {
+                continue; // Post created after the matrix was frozen
+            }
+            categoryHeaps.computeIfAbsent(normalize((String) pair[1]), category -> new TopK(perCategory))
+                    .offer(postIndex, popularity[postIndex]);
+        }
+        Map<String, int[]> byCategory = new HashMap<>(categoryHeaps.size() * 2);
+        categoryHeaps.forEach((category, heap) -> byCategory.put(category, heap.indexes()));
+        return new ColdStartLists(minInteractions, popularity, overall.indexes(), byCategory);
+    }
+
+    /**
+     * Whether a user with this history should be served from the lists.
+     */
+    public boolean isCold(SparseRow history) {
+        return history.size() < minInteractions;
+    }
+
+    /**
+     * Posts in more of the user's interests come first, then by popularity; the overall list
+     * fills the rest.
+     *
+     * @param eligible filters out deleted posts and posts the user already interacted with
+     */
+    public TopK rank(Collection<String> interests, int n, IntPredicate eligible) {
+        IntDoubleMap matches = new IntDoubleMap(64);
+        if (interests != null) {
+            for (String interest : interests) {
+                if (interest == null) {
+                    continue;
+                }
+                for (int postIndex : byCategory.getOrDefault(normalize(interest), NONE)) {
+                    matches.add(postIndex, 1);
+                }
+            }
+        }
+        for (int postIndex : overall) {
+            matches.add(postIndex, 0);
+        }
+
+        // Popularity is scaled into [0, 1) so it only orders posts with the same number of matches
+        double scale = 1.0 / (maxPopularity(matches) + 1);
+        TopK ranked = new TopK(n);
+        for (int i = 0; i < matches.size(); i++) {
+            int postIndex = matches.keyAt(i);
+            if (eligible.test(postIndex)) {
+                ranked.offer(postIndex, matches.valueAt(i) + popularity[postIndex] * scale);
+            }
+        }
+        return ranked;
+    }
+
+    private double maxPopularity(IntDoubleMap candidates) {
+        double max = 0;
+        for (int i = 0; i < candidates.size(); i++) {
+            max = Math.max(max, popularity[candidates.keyAt(i)]);
+        }
+        return max;
+    }
+
+    private static String normalize(String category) {
+        return category.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public int minInteractions() {
+        return minInteractions;
+    }
+
+    public int categoryCount() {
+        return byCategory.size();
+    }
+
+    public long getBuiltAt() {
+        return builtAt;
+    }
+}
@@ -0,0 +1,286 @@
+package com.dawillygene.ConfideHubs.service.recommendation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Live content-based filtering state: the keyword set of every post and, for every user, the union
+ * of keywords of the posts they reacted to positively.
+ * Positive reactions are counted per (user, post) so a removed like only drops the post's keywords
+ * once no other positive reaction from the same user still references it.
+ * <p>
+ * Categories and hashtags are interned into one keyword dictionary and every set is held as a
+ * {@link KeywordVector} bitset; post vectors live in an array indexed by the shared post index,
+ * user preferences in one indexed by the user index of the positive interactions.
+ * <p>
+ * A post is a ranking candidate while it has a vector and has not passed its expiry time, which
+ * is kept per post index next to the vectors.
+ */
+public final class ContentIndex {
+
+    public static final long NEVER = Long.MAX_VALUE;
+
+    private final IdDictionary<String> posts;
+    private final IdDictionary<String> keywordDictionary;
+    private final InteractionMatrix positiveInteractions;
+    private volatile KeywordVector[] postFeatures;
+    // Epoch milliseconds; NEVER for posts that do not expire
+    private volatile long[] postExpiry;
+    // Null for users without positive reactions
+    private volatile KeywordVector[] userPreferences;
+
+    /**
+     * @param posts                post dictionary shared with the interaction matrices
+     * @param positiveInteractions count of positive reactions per (user, post)
+     * @param postFeatures         keyword set per post id
+     */
+    public ContentIndex(IdDictionary<String> posts, InteractionMatrix positiveInteractions,
+                        Map<String, Set<String>> postFeatures) {
+        this(posts, positiveInteractions, postFeatures, Collections.emptyMap());
+    }
+
+    /**
+     * @param postExpiry expiry time in epoch milliseconds of the posts that expire
+     */
+    public ContentIndex(IdDictionary<String> posts, InteractionMatrix positiveInteractions,
+                        Map<String, Set<String>> postFeatures, Map<String, Long> postExpiry) {
+        this.posts = posts;
+        this.keywordDictionary = new IdDictionary<>();
+        this.positiveInteractions = positiveInteractions;
+        this.userPreferences = new KeywordVector[positiveInteractions.userCount()];
+        postFeatures.keySet().forEach(posts::intern);
+        KeywordVector[] vectors = new KeywordVector[posts.size()];
+        postFeatures.forEach((postId, features) ->
+                vectors[posts.indexOf(postId)] = KeywordVector.of(features, keywordDictionary));
+        this.postFeatures = vectors;
+        long[] expiry = new long[vectors.length];
+        Arrays.fill(expiry, NEVER);
+        postExpiry.forEach((postId, expiresAt) -> {
+            int postIndex = posts.indexOf(postId);
+            if (postIndex >= 0 && postIndex < expiry.length) {
+                expiry[postIndex] = expiresAt;
+            }
+        });
+        this.postExpiry = expiry;
+        for (int userIndex = 0; userIndex < positiveInteractions.userCount(); userIndex++) {
+            refreshPreferences(userIndex);
+        }
+    }
+
+    private ContentIndex(ContentIndex source) {
+        this.posts = source.posts;
+        this.keywordDictionary = source.keywordDictionary;
+        this.positiveInteractions = source.positiveInteractions.snapshot();
+        this.postFeatures = source.postFeatures.clone();
+        this.postExpiry = source.postExpiry.clone();
+        this.userPreferences = source.userPreferences.clone();
+    }
+
+    public static ContentIndex empty() {
+        IdDictionary<String> posts = new IdDictionary<>();
+        return new ContentIndex(posts, InteractionMatrix.builder(posts).build(), Collections.emptyMap());
+    }
+
+    /**
+     * Keyword set of a post: its categories plus its hashtags.
+     */
+    public static Set<String> keywords(Collection<String> categories, Collection<String> hashtags) {
+        Set<String> keywords = new HashSet<>();
+        if (categories != null) {
+            keywords.addAll(categories);
+        }
+        if (hashtags != null) {
+            keywords.addAll(hashtags);
+        }
+        return keywords;
+    }
+
+    /**
+     * Point-in-time copy that later updates do not affect. Vectors are immutable, so this copies
+     * only the post and user arrays, one reference per entry.
+     */
+    public synchronized ContentIndex snapshot() {
+        return new ContentIndex(this);
+    }
+
+    /**
+     * @return the preference vector of the user, or null if they have no positive reactions
+     */
+    public KeywordVector preferences(Long userId) {
+        int userIndex = positiveInteractions.userIndex(userId);
+        KeywordVector[] current = userPreferences;
+        return userIndex >= 0 && userIndex < current.length ? current[userIndex] : null;
+    }
+
+    /**
+     * Decoded copy of every user's preferences, for inspection; scoring uses {@link #preferences(Long)}.
+     */
+    public Map<Long, Set<String>> userPreferences() {
+        KeywordVector[] current = userPreferences;
+        Map<Long, Set<String>> decoded = new HashMap<>();
+        for (int userIndex = 0; userIndex < current.length; userIndex++) {
+            if (current[userIndex] != null) {
+                decoded.put(positiveInteractions.userId(userIndex), current[userIndex].toSet(keywordDictionary));
+            }
+        }
+        return Collections.unmodifiableMap(decoded);
+    }
+
+    /**
+     * Decoded copy of every post's keywords, for inspection; scoring uses {@link #features(int)}.
+     */
+    public Map<String, Set<String>> postFeatures() {
+        KeywordVector[] current = postFeatures;
+        Map<String, Set<String>> decoded = new HashMap<>();
+        for (int postIndex = 0; postIndex < current.length; postIndex++) {
+            if (current[postIndex] != null) {
+                decoded.put(posts.keyAt(postIndex), current[postIndex].toSet(keywordDictionary));
+            }
+        }
+        return Collections.unmodifiableMap(decoded);
+    }
+
+    public int keywordCount() {
+        return keywordDictionary.size();
+    }
+
+    /**
+     * @return number of indexes in the shared post dictionary; some may belong to deleted posts
+     */
+    public int postCount() {
+        return posts.size();
+    }
+
+    /**
+     * @return the keyword vector of the post at the given index, or null if the post is unknown or deleted
+     */
+    public KeywordVector features(int postIndex) {
+        KeywordVector[] current = postFeatures;
+        return postIndex >= 0 && postIndex < current.length ? current[postIndex] : null;
+    }
+
+    /**
+     * @return whether the post can be recommended at {@code now}: known, not deleted and not expired
+     */
+    public boolean isCandidate(int postIndex, long now) {
+        return features(postIndex) != null && expiresAt(postIndex) > now;
+    }
+
+    /**
+     * @return the expiry time of the post in epoch milliseconds, or {@link #NEVER}
+     */
+    public long expiresAt(int postIndex) {
+        long[] current = postExpiry;
+        return postIndex >= 0 && postIndex < current.length ? current[postIndex] : NEVER;
+    }
+
+    /**
+     * Records a positive reaction being added ({@code delta > 0}) or removed ({@code delta < 0}).
+     */
+    public synchronized void applyPositiveReaction(Long userId, String postId, int delta) {
+        positiveInteractions.add(userId, postId, delta);
+        refreshPreferences(positiveInteractions.userIndex(userId));
+    }
+
+    /**
+     * Registers a new post or replaces the keywords of an edited one.
+     */
+    public synchronized void putPost(String postId, List<String> categories, List<String> hashtags) {
+        putPost(postId, categories, hashtags, NEVER);
+    }
+
+    /**
+     * Registers a new post or replaces the keywords and expiry of an edited one.
+     *
+     * @param expiresAt epoch milliseconds, or {@link #NEVER}
+     */
+    public synchronized void putPost(String postId, List<String> categories, List<String> hashtags,
+                                     long expiresAt) {
+        int postIndex = posts.intern(postId);
+        KeywordVector[] current = postFeatures;
+        long[] expiry = postExpiry;
+        if (postIndex >= current.length) {
+            int capacity = Math.max(postIndex + 1, current.length + (current.length >> 1));
+            current = Arrays.copyOf(current, capacity);
+        }
+        if (postIndex >= expiry.length) {
+            int oldLength = expiry.length;
+            expiry = Arrays.copyOf(expiry, current.length);
+            Arrays.fill(expiry, oldLength, expiry.length, NEVER);
+        }
+        current[postIndex] = KeywordVector.of(keywords(categories, hashtags), keywordDictionary);
+        expiry[postIndex] = expiresAt;
+        postFeatures = current;
+        postExpiry = expiry;
+        refreshUsersOf(postId);
+    }
+
+    /**
+     * Takes an expired post out of the candidate pool. Unlike {@link #removePost(String)} the
+     * positive reactions on it are kept; users' preferences drop its keywords on their next refresh.
+     */
+    public synchronized void expirePost(String postId) {
+        int postIndex = posts.indexOf(postId);
+        KeywordVector[] current = postFeatures;
+        if (postIndex >= 0 && postIndex < current.length) {
+            current[postIndex] = null;
+            postFeatures = current;
+        }
+    }
+
+    public synchronized void removePost(String postId) {
+        int postIndex = posts.indexOf(postId);
+        KeywordVector[] current = postFeatures;
+        if (postIndex >= 0 && postIndex < current.length) {
+            current[postIndex] = null;
+            postFeatures = current;
+        }
+        List<Integer> affected = usersOf(postId);
+        positiveInteractions.removePost(postId);
+        affected.forEach(this::refreshPreferences);
+    }
+
+    private void refreshUsersOf(String postId) {
+        usersOf(postId).forEach(this::refreshPreferences);
+    }
+
+    private List<Integer> usersOf(String postId) {
+        SparseRow column = positiveInteractions.column(positiveInteractions.postIndex(postId));
+        List<Integer> users = new ArrayList<>(column.size());
+        for (int i = 0; i < column.size(); i++) {
+            users.add(column.indexAt(i));
+        }
+        return users;
+    }
+
+    private void refreshPreferences(int userIndex) {
+        SparseRow row = positiveInteractions.row(userIndex);
+        KeywordVector preferences = null;
+        if (!row.isEmpty()) {
+            KeywordVector.Union union = new KeywordVector.Union();
+            for (int i = 0; i < row.size(); i++) {
+                KeywordVector features = features(row.indexAt(i));
+                if (features != null) {
+                    union.add(features);
+                }
+            }
+            preferences = union.build();
+        }
+        KeywordVector[] current = userPreferences;
+        if (userIndex >= current.length) {
+            if (preferences == null) {
+                return;
+            }
+            current = Arrays.copyOf(current, Math.max(userIndex + 1, current.length + (current.length >> 1)));
+        }
+        current[userIndex] = preferences;
+        userPreferences = current;
+    }
+}
@@ -0,0 +1,61 @@
+package com.dawillygene.ConfideHubs.service.recommendation;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Posts with an expiry time, ordered by it, so the ones that have expired are found by looking
+ * at the head of a heap instead of scanning every post. Rescheduling or cancelling a post leaves
+ * its old heap entry behind; such entries are skipped when they reach the head.
+ * <p>
+ * Not thread-safe; callers synchronize.
+ */
+public final class ExpiryIndex {
+
+    private record Entry(long expiresAt, String postId) {
+    }
+
+    private final PriorityQueue<Entry> queue = new PriorityQueue<>((a, b) -> Long.compare(a.expiresAt, b.expiresAt));
+    private final Map<String, Long> expiries = new HashMap<>();
+
+    /**
+     * Sets or replaces the expiry of a post, in epoch milliseconds.
+     */
+    public void schedule(String postId, long expiresAt) {
+        Long previous = expiries.put(postId, expiresAt);
+        if (previous == null || previous != expiresAt) {
+            queue.add(new Entry(expiresAt, postId));
+        }
+    }
+
+    public void cancel(String postId) {
+        expiries.remove(postId);
+    }
+
+    /**
+     * Removes and returns the posts whose expiry is at or before {@code now}.
+     */
+    public List<String> pollExpired(long now) {
+        List<String> expired = new ArrayList<>();
+        while (!queue.isEmpty() && queue.peek().expiresAt <= now) {
+            Entry entry = queue.poll();
+            Long current = expiries.get(entry.postId);
+            if (current != null && current == entry.expiresAt) {
+                expiries.remove(entry.postId);
+                expired.add(entry.postId);
+            }
+        }
+        // Stale entries never reach the head while a later live one blocks them; drop them in bulk
+        if (queue.size() > 2 * expiries.size() + 64) {
+            queue.removeIf(entry -> !Long.valueOf(entry.expiresAt).equals(expiries.get(entry.postId)));
+        }
+        return expired;
+    }
+
+    public int size() {
+        return expiries.size();
+    }
+}
@@ -0,0 +1,85 @@
+package com.dawillygene.ConfideHubs.service.recommendation;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps external identifiers (user ids, post UUIDs) to dense int indexes so the
+ * recommendation matrices can be stored in primitive arrays.
+ * Indexes are assigned in insertion order and never reused, so an index handed
+ * out once stays valid for the lifetime of the dictionary.
+ *
+ * @param <K> the external identifier type
+ */
+public final class IdDictionary<K> {
+
+    private final Map<K, Integer> indexes;
+    private volatile Object[] keys;
+    private volatile int size;
+
+    public IdDictionary() {
+        this(16);
+    }
+
+    public IdDictionary(int expectedSize) {
+        int capacity = Math.max(16, expectedSize);
+        this.indexes = new ConcurrentHashMap<>(capacity);
+        this.keys = new Object[capacity];
+    }
+
+    /**
+     * Returns the index of the given key, assigning the next free index if the key is new.
+     */
+    public int intern(K key) {
+        Integer existing = indexes.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        synchronized (this) {
+            existing = indexes.get(key);
+            if (existing != null) {
+                return existing;
+            }
+            int index = size;
+            if (index == keys.length) {
+                keys = Arrays.copyOf(keys, index + (index >> 1));
+            }
+            keys[index] = key;
+            size = index + 1;
+            indexes.put(key, index);
+            return index;
+        }
+    }
+
+    /**
+     * @return the index of the key, or -1 if the key has never been interned
+     */
+    public int indexOf(K key) {
+        if (key == null) {
+            return -1;
+        }
+        Integer index = indexes.get(key);
+        return index != null ? index : -1;
+    }
+
+    @SuppressWarnings("unchecked")
+    public K keyAt(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("No key for index " + index);
+        }
+        return (K) keys[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Rough retained size: one map node, one boxed Integer and one array slot per key.
+     * The keys themselves are shared with the entities and are not counted.
+     */
+    public long estimatedHeapBytes() {
+        return 64L + (long) size * (32 + 16 + 8) + (long) keys.length * 4;
+    }
+}
@@ -0,0 +1,98 @@
+package com.dawillygene.ConfideHubs.service.recommendation;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing accumulator from non-negative int ids to double sums.
+ * Used for sparse per-request score vectors where a dense array sized to all users or posts
+ * would cost more to allocate and clear than the work itself.
+ */
+public final class IntDoubleMap {
+
+    private static final int FREE = -1;
+
+    private int[] keys;
+    private double[] values;
+    private int[] insertionOrder;
+    private int size;
+    private int mask;
+
+    public IntDoubleMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedSize * 2 - 1)) << 1;
+        keys = new int[capacity];
+        Arrays.fill(keys, FREE);
+        values = new double[capacity];
+        insertionOrder = new int[capacity >> 1];
+        mask = capacity - 1;
+    }
+
+    public void add(int key, double delta) {
+        int slot = slotOf(key);
+        if (keys[slot] == FREE) {
+            keys[slot] = key;
+            insertionOrder[size++] = slot;
+            if (size == insertionOrder.length) {
+                grow();
+                slot = slotOf(key);
+            }
+        }
+        values[slot] += delta;
+    }
+
+    public double get(int key) {
+        int slot = slotOf(key);
+        return keys[slot] == FREE ? 0 : values[slot];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the key of the i-th distinct key added, 0 ≤ i < size()
+     */
+    public int keyAt(int i) {
+        return keys[insertionOrder[i]];
+    }
+
+    /**
+     * @return the accumulated value of {@link #keyAt(int) keyAt(i)}
+     */
+    public double valueAt(int i) {
+        return values[insertionOrder[i]];
+    }
+
+    private int slotOf(int key) {
+        int slot = mix(key) & mask;
+        while (keys[slot] != FREE && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        double[] oldValues = values;
+        int[] oldOrder = insertionOrder;
+        int count = size;
+        int capacity = oldKeys.length << 1;
+        keys = new int[capacity];
+        Arrays.fill(keys, FREE);
+        values = new double[capacity];
+        insertionOrder = new int[capacity >> 1];
+        mask = capacity - 1;
+        size = 0;
+        for (int i = 0; i < count; i++) {
+            int oldSlot = oldOrder[i];
+            int slot = slotOf(oldKeys[oldSlot]);
+            keys[slot] = oldKeys[oldSlot];
+            values[slot] = oldValues[oldSlot];
+            insertionOrder[size++] = slot;
+        }
+    }
+}
@@ -0,0 +1,466 @@
+package com.dawillygene.ConfideHubs.service.recommendation;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Compact user × post interaction matrix used by collaborative filtering.
+ * Users and posts are mapped to dense int ids by {@link IdDictionary}; each user row is a
+ * {@link SparseRow} holding the sorted post ids and summed reaction weights in primitive arrays.
+ * Compared with {@code Map<Long, Map<String, Integer>>} this drops the per-entry HashMap node,
+ * boxed Integer and UUID reference, which is where most of the heap went.
+ * <p>
+ * Alongside the rows the matrix keeps the transposed view, an inverted index from each post to
+ * the users who interacted with it, so neighbours of a user can be found by walking only the
+ * columns of the posts in their history.
+ * <p>
+ * The matrix is updated in place by {@link #add(Long, String, float)}: writers are serialised
+ * and replace whole rows and columns, readers never lock and always see a complete row.
+ * <p>
+ * Weights are stored in the form of the matrix's {@link TimeDecay}: multiply them by
+ * {@link #weightScale(long)} to get weights decayed to a point in time. Every entry shares that
+ * factor, so cosine similarities and rankings that only compare weights can use the stored values
+ * directly. {@link #prune(double, long)} drops entries that have decayed away.
+ */
+public final class InteractionMatrix {
+
+    private final IdDictionary<Long> users;
+    private final IdDictionary<String> posts;
+    private volatile SparseRow[] rows;
+    private volatile SparseRow[] columns;
+    private volatile long interactionCount;
+    private volatile TimeDecay decay;
+
+    private InteractionMatrix(IdDictionary<Long> users, IdDictionary<String> posts,
+                              SparseRow[] rows, SparseRow[] columns, TimeDecay decay) {
+        this.users = users;
+        this.posts = posts;
+        this.rows = rows;
+        this.columns = columns;
+        this.decay = decay;
+        long count = 0;
+        for (SparseRow row : rows) {
+            count += row.size();
+        }
+        this.interactionCount = count;
+    }
+
+    private InteractionMatrix(IdDictionary<Long> users, IdDictionary<String> posts,
+                              SparseRow[] rows, SparseRow[] columns, long interactionCount, TimeDecay decay) {
+        this.users = users;
+        this.posts = posts;
+        this.rows = rows;
+        this.columns = columns;
+        this.interactionCount = interactionCount;
+        this.decay = decay;
+    }
+
+    public static InteractionMatrix empty() {
+        return new InteractionMatrix(new IdDictionary<>(), new IdDictionary<>(), new SparseRow[0], new SparseRow[0],
+                TimeDecay.NONE);
+    }
+
+    public static Builder builder() {
+        return new Builder(new IdDictionary<>());
+    }
+
+    /**
+     * Starts a matrix that shares its post dictionary with other structures, so the same post
+     * has the same index in all of them.
+     */
+    public static Builder builder(IdDictionary<String> postDictionary) {
+        return new Builder(postDictionary);
+    }
+
+    /**
+     * Point-in-time copy that later {@link #add} and {@link #removePost} calls do not affect.
+     * Rows are immutable, so only the two row arrays are copied; the dictionaries are
+     * append-only and shared.
+     */
+    public synchronized InteractionMatrix snapshot() {
+        return new InteractionMatrix(users, posts, rows.clone(), columns.clone(), interactionCount, decay);
+    }
+
+    public TimeDecay decay() {
+        return decay;
+    }
+
+    /**
+     * @return the factor that turns stored weights into weights decayed to {@code nowMillis}
+     */
+    public double weightScale(long nowMillis) {
+        return decay.scale(nowMillis);
+    }
+
+    public int userCount() {
+        return users.size();
+    }
+
+    public int postCount() {
+        return posts.size();
+    }
+
+    /**
+     * @return number of non-zero (user, post) cells
+     */
+    public long interactionCount() {
+        return interactionCount;
+    }
+
+    public int userIndex(Long userId) {
+        return users.indexOf(userId);
+    }
+
+    public int postIndex(String postId) {
+        return posts.indexOf(postId);
+    }
+
+    public Long userId(int userIndex) {
+        return users.keyAt(userIndex);
+    }
+
+    public String postId(int postIndex) {
+        return posts.keyAt(postIndex);
+    }
+
+    /**
+     * @return the row of the user, or {@link SparseRow#EMPTY} for an unknown index
+     */
+    public SparseRow row(int userIndex) {
+        SparseRow[] current = rows;
+        if (userIndex < 0 || userIndex >= current.length || current[userIndex] == null) {
+            return SparseRow.EMPTY;
+        }
+        return current[userIndex];
+    }
+
+    public SparseRow rowOf(Long userId) {
+        return row(userIndex(userId));
+    }
+
+    /**
+     * @return the users who interacted with the post, with their weights, or
+     * {@link SparseRow#EMPTY} for an unknown index
+     */
+    public SparseRow column(int postIndex) {
+        SparseRow[] current = columns;
+        if (postIndex < 0 || postIndex >= current.length || current[postIndex] == null) {
+            return SparseRow.EMPTY;
+        }
+        return current[postIndex];
+    }
+
+    public double cosineSimilarity(int userIndex1, int userIndex2) {
+        return row(userIndex1).cosineSimilarity(row(userIndex2));
+    }
+
+    /**
+     * Dot products of the user's row with the row of every user who shares at least one post with
+     * them, accumulated post by post through the post → users columns. Everyone else has a dot
+     * product of 0 and is left out.
+     *
+     * @return dot product per co-reacting user index
+     */
+    public IntDoubleMap coReactionDotProducts(int userIndex) {
+        SparseRow userInteractions = row(userIndex);
+        IntDoubleMap dotProducts = new IntDoubleMap(64);
+        for (int i = 0; i < userInteractions.size(); i++) {
+            SparseRow postUsers = column(userInteractions.indexAt(i));
+            float weight = userInteractions.valueAt(i);
+            for (int j = 0; j < postUsers.size(); j++) {
+                int otherUserIndex = postUsers.indexAt(j);
+                if (otherUserIndex != userIndex) {
+                    dotProducts.add(otherUserIndex, (double) weight * postUsers.valueAt(j));
+                }
+            }
+        }
+        return dotProducts;
+    }
+
+    /**
+     * Adds a weight recorded at {@code atMillis}, or takes it away again with a negative weight
+     * and the same time; see {@link #add(Long, String, float)}.
+     */
+    public synchronized void add(Long userId, String postId, float weight, long atMillis) {
+        add(userId, postId, decay.encode(weight, atMillis));
+    }
+
+    /**
+     * Adds {@code delta}, in stored form, to the (user, post) cell, interning either id if it is
+     * new. A cell whose weight falls to zero or below, or to float rounding noise relative to
+     * {@code delta}, is removed.
+     */
+    public synchronized void add(Long userId, String postId, float delta) {
+        int userIndex = users.intern(userId);
+        int postIndex = posts.intern(postId);
+        SparseRow[] current = rows;
+        if (userIndex >= current.length) {
+            current = Arrays.copyOf(current, Math.max(userIndex + 1, current.length + (current.length >> 1)));
+        }
+        SparseRow before = current[userIndex] != null ? current[userIndex] : SparseRow.EMPTY;
+        SparseRow after = before.plus(postIndex, delta);
+        if (delta < 0 && after.contains(postIndex) && after.get(postIndex) <= -delta * 1e-4f) {
+            after = after.minus(postIndex); // What is left of subtracting a decayed weight is rounding error
+        }
+        current[userIndex] = after;
+        rows = current;
+        interactionCount += after.size() - before.size();
+
+        SparseRow[] currentColumns = columns;
+        if (postIndex >= currentColumns.length) {
+            currentColumns = Arrays.copyOf(currentColumns,
+                    Math.max(postIndex + 1, currentColumns.length + (currentColumns.length >> 1)));
+        }
+        SparseRow column = currentColumns[postIndex] != null ? currentColumns[postIndex] : SparseRow.EMPTY;
+        currentColumns[postIndex] = after.contains(postIndex)
+                ? column.minus(userIndex).plus(userIndex, after.get(postIndex))
+                : column.minus(userIndex);
+        columns = currentColumns;
+    }
+
+    /**
+     * Drops every interaction with the given post, e.g. after the post was deleted.
+     */
+    public synchronized void removePost(String postId) {
+        int postIndex = posts.indexOf(postId);
+        if (postIndex < 0) {
+            return;
+        }
+        SparseRow column = column(postIndex);
+        SparseRow[] current = rows;
+        for (int i = 0; i < column.size(); i++) {
+            int u = column.indexAt(i);
+            current[u] = current[u].minus(postIndex);
+        }
+        rows = current;
+        interactionCount -= column.size();
+        if (column.size() > 0) {
+            SparseRow[] currentColumns = columns;
+            currentColumns[postIndex] = SparseRow.EMPTY;
+            columns = currentColumns;
+        }
+    }
+
+    /**
+     * Removes every entry whose weight decayed to {@code nowMillis} is below {@code minWeight}, and
+     * moves the decay epoch to {@code nowMillis} if stored weights have grown large. Both rewrite
+     * the rows in one pass, so they run as periodic maintenance rather than per tick.
+     *
+     * @return number of entries removed
+     */
+    public synchronized int prune(double minWeight, long nowMillis) {
+        TimeDecay current = decay;
+        boolean rebase = current.needsRebase(nowMillis);
+        float factor = rebase ? (float) current.scale(nowMillis) : 1f;
+        double storedMinimum = minWeight / current.scale(nowMillis);
+
+        SparseRow[] currentRows = rows;
+        SparseRow[] pruned = new SparseRow[currentRows.length];
+        int removed = 0;
+        long count = 0;
+        for (int u = 0; u < currentRows.length; u++) {
+            SparseRow row = currentRows[u] != null ? currentRows[u] : SparseRow.EMPTY;
+            int kept = 0;
+            for (int i = 0; i < row.size(); i++) {
+                if (row.valueAt(i) >= storedMinimum) {
+                    kept++;
+                }
+            }
+            if (kept == row.size() && !rebase) {
+                pruned[u] = row;
+            } else {
+                int[] indexes = new int[kept];
+                float[] values = new float[kept];
+                int k = 0;
+                for (int i = 0; i < row.size(); i++) {
+                    if (row.valueAt(i) >= storedMinimum) {
+                        indexes[k] = row.indexAt(i);
+                        values[k++] = row.valueAt(i) * factor;
+                    }
+                }
+                pruned[u] = kept == 0 ? SparseRow.EMPTY : new SparseRow(indexes, values);
+            }
+            removed += row.size() - kept;
+            count += kept;
+        }
+        if (removed == 0 && !rebase) {
+            return 0;
+        }
+        rows = pruned;
+        columns = transpose(pruned, posts.size());
+        interactionCount = count;
+        if (rebase) {
+            decay = current.rebasedTo(nowMillis);
+        }
+        return removed;
+    }
+
+    /**
+     * Approximate retained heap of the matrix including both dictionaries.
+     */
+    public long estimatedHeapBytes() {
+        SparseRow[] current = rows;
+        SparseRow[] currentColumns = columns;
+        long bytes = 16L + 16 + 4L * current.length + 16 + 4L * currentColumns.length;
+        for (SparseRow row : current) {
+            if (row != null) {
+                bytes += row.estimatedHeapBytes();
+            }
+        }
+        for (SparseRow column : currentColumns) {
+            if (column != null) {
+                bytes += column.estimatedHeapBytes();
+            }
+        }
+        return bytes + users.estimatedHeapBytes() + posts.estimatedHeapBytes();
+    }
+
+    /**
+     * Approximate retained heap of the equivalent boxed representation, for comparison with
+     * {@link #estimatedHeapBytes()}. Counts one outer HashMap entry and Long key per user, one
+     * HashMap node per interaction and an Integer for values outside the JDK's small-integer cache.
+     */
+    public static long estimateBoxedMapHeapBytes(Map<Long, Map<String, Integer>> matrix) {
+        long bytes = 48L + tableBytes(matrix.size());
+        for (Map<String, Integer> row : matrix.values()) {
+            bytes += 32 + 16 + 48 + tableBytes(row.size());
+            for (Integer value : row.values()) {
+                bytes += value >= -128 && value <= 127 ? 32 : 32 + 16;
+            }
+        }
+        return bytes;
+    }
+
+    private static long tableBytes(int entries) {
+        int needed = (int) Math.ceil(entries / 0.75);
+        int slots = needed <= 16 ? 16 : Integer.highestOneBit(needed - 1) << 1;
+        return 16L + 4L * slots;
+    }
+
+    /**
+     * Builds the post → users columns from the user rows. Rows are visited in increasing user
+     * order, so every column comes out sorted.
+     */
+    private static SparseRow[] transpose(SparseRow[] rows, int columnCount) {
+        int[] counts = new int[columnCount];
+        for (SparseRow row : rows) {
+            for (int i = 0; i < row.size(); i++) {
+                counts[row.indexAt(i)]++;
+            }
+        }
+        int[][] indexes = new int[columnCount][];
+        float[][] values = new float[columnCount][];
+        for (int c = 0; c < columnCount; c++) {
+            indexes[c] = new int[counts[c]];
+            values[c] = new float[counts[c]];
+        }
+        Arrays.fill(counts, 0);
+        for (int u = 0; u < rows.length; u++) {
+            SparseRow row = rows[u];
+            for (int i = 0; i < row.size(); i++) {
+                int c = row.indexAt(i);
+                indexes[c][counts[c]] = u;
+                values[c][counts[c]] = row.valueAt(i);
+                counts[c]++;
+            }
+        }
+        SparseRow[] columns = new SparseRow[columnCount];
+        for (int c = 0; c < columnCount; c++) {
+            columns[c] = new SparseRow(indexes[c], values[c]);
+        }
+        return columns;
+    }
+
+    /**
+     * Accumulates (user, post, weight) triples in flat primitive arrays and compacts them into
+     * sorted rows on {@link #build()}. Repeated (user, post) pairs have their weights summed.
+     */
+    public static final class Builder {
+
+        private final IdDictionary<Long> users = new IdDictionary<>();
+        private final IdDictionary<String> posts;
+        private TimeDecay decay = TimeDecay.NONE;
+        private int[] userIndexes = new int[1024];
+        private int[] postIndexes = new int[1024];
+        private float[] weights = new float[1024];
+        private int size;
+
+        private Builder(IdDictionary<String> posts) {
+            this.posts = posts;
+        }
+
+        /**
+         * Stores weights added with a time in decayed form; must be set before those adds.
+         */
+        public Builder decay(TimeDecay decay) {
+            this.decay = decay;
+            return this;
+        }
+
+        /**
+         * Adds a weight recorded at {@code atMillis}, encoded with the builder's decay.
+         */
+        public Builder add(Long userId, String postId, float weight, long atMillis) {
+            return add(userId, postId, decay.encode(weight, atMillis));
+        }
+
+        public Builder add(Long userId, String postId, float weight) {
+            if (size == userIndexes.length) {
+                int capacity = size + (size >> 1);
+                userIndexes = Arrays.copyOf(userIndexes, capacity);
+                postIndexes = Arrays.copyOf(postIndexes, capacity);
+                weights = Arrays.copyOf(weights, capacity);
+            }
+            userIndexes[size] = users.intern(userId);
+            postIndexes[size] = posts.intern(postId);
+            weights[size] = weight;
+            size++;
+            return this;
+        }
+
+        public InteractionMatrix build() {
+            int userCount = users.size();
+
+            // Counting sort of the triples by user
+            int[] offsets = new int[userCount + 1];
+            for (int i = 0; i < size; i++) {
+                offsets[userIndexes[i] + 1]++;
+            }
+            for (int u = 0; u < userCount; u++) {
+                offsets[u + 1] += offsets[u];
+            }
+            int[] cursor = Arrays.copyOf(offsets, userCount);
+            long[] packed = new long[size];
+            for (int i = 0; i < size; i++) {
+                // Post index in the high half, original position in the low half, so sorting a
+                // user's slice orders it by post while keeping the link back to the weight.
+                packed[cursor[userIndexes[i]]++] = ((long) postIndexes[i] << 32) | i;
+            }
+
+            SparseRow[] rows = new SparseRow[userCount];
+            for (int u = 0; u < userCount; u++) {
+                int from = offsets[u];
+                int to = offsets[u + 1];
+                Arrays.sort(packed, from, to);
+                int[] indexes = new int[to - from];
+                float[] values = new float[to - from];
+                int length = 0;
+                for (int k = from; k < to; k++) {
+                    int post = (int) (packed[k] >>> 32);
+                    float weight = weights[(int) packed[k]];
+                    if (length > 0 && indexes[length - 1] == post) {
+                        values[length - 1] += weight;
+                    } else {
+                        indexes[length] = post;
+                        values[length] = weight;
+                        length++;
+                    }
+                }
+                rows[u] = length == indexes.length
+                        ? new SparseRow(indexes, values)
+                        : new SparseRow(Arrays.copyOf(indexes, length), Arrays.copyOf(values, length));
+            }
+            return new InteractionMatrix(users, posts, rows, transpose(rows, posts.size()), decay);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.dawillygene.ConfideHubs.service.recommendation;
+
+/**
+ * Precomputed item-to-item model: for every post, its top-K most similar posts by cosine
+ * similarity of their co-reaction vectors (the users who reacted to them, with weights).
+ * Scoring a user only walks the neighbour lists of the posts in their own history, so the cost
+ * is O(history × K) regardless of how many other users exist.
+ */
+public final class ItemSimilarityModel {
+
+    private final InteractionMatrix matrix;
+    private final int[][] neighbours;
+    private final float[][] similarities;
+    private final long builtAt;
+
+    private ItemSimilarityModel(InteractionMatrix matrix, int[][] neighbours, float[][] similarities) {
+        this.matrix = matrix;
+        this.neighbours = neighbours;
+        this.similarities = similarities;
+        this.builtAt = System.currentTimeMillis();
+    }
+
+    /**
+     * Computes the top-{@code k} neighbour list of every post currently in the matrix, walking
+     * the post → users columns and then those users' rows.
+     * Posts are processed in parallel chunks on the caller's fork/join pool; each chunk reuses one
+     * dense accumulator.
+     */
+    public static ItemSimilarityModel build(InteractionMatrix matrix, int k) {
+        // The matrix keeps changing while we build; posts interned after this point are ignored
+        int postCount = matrix.postCount();
+
+        int[][] neighbours = new int[postCount][];
+        float[][] similarities = new float[postCount][];
+        Chunks.forEach(postCount, (from, to) -> {
+            double[] dot = new double[postCount];
+            int[] seen = new int[postCount];
+            boolean[] marked = new boolean[postCount];
+            for (int post = from; post < to; post++) {
+                int seenCount = 0;
+                SparseRow column = matrix.column(post);
+                for (int i = 0; i < column.size(); i++) {
+                    SparseRow row = matrix.row(column.indexAt(i));
+                    float weight = column.valueAt(i);
+                    for (int j = 0; j < row.size(); j++) {
+                        int other = row.indexAt(j);
+                        if (other == post || other >= postCount) {
+                            continue;
+                        }
+                        if (!marked[other]) {
+                            marked[other] = true;
+                            seen[seenCount++] = other;
+                        }
+                        dot[other] += (double) weight * row.valueAt(j);
+                    }
+                }
+
+                TopK top = new TopK(k);
+                for (int s = 0; s < seenCount; s++) {
+                    int other = seen[s];
+                    double norms = column.norm() * matrix.column(other).norm();
+                    if (norms > 0) {
+                        top.offer(other, dot[other] / norms);
+                    }
+                    dot[other] = 0;
+                    marked[other] = false;
+                }
+                neighbours[post] = top.indexes();
+                similarities[post] = top.scoresAsFloats();
+            }
+        });
+        return new ItemSimilarityModel(matrix, neighbours, similarities);
+    }
+
+    /**
+     * Scores posts for a user by merging the neighbour lists of the posts they interacted with,
+     * each weighted by the user's interaction weight. Posts already in the history are skipped.
+     *
+     * @return score per post index
+     */
+    public IntDoubleMap score(Long userId) {
+        return score(matrix.rowOf(userId));
+    }
+
+    /**
+     * Same as {@link #score(Long)} for a history row taken from another view of the matrix, such
+     * as a snapshot.
+     */
+    public IntDoubleMap score(SparseRow history) {
+        IntDoubleMap scores = new IntDoubleMap(history.size() * 8);
+        for (int i = 0; i < history.size(); i++) {
+            int post = history.indexAt(i);
+            if (post >= neighbours.length) {
+                continue; // Post first seen after this model was built
+            }
+            float weight = history.valueAt(i);
+            int[] postNeighbours = neighbours[post];
+            float[] postSimilarities = similarities[post];
+            for (int n = 0; n < postNeighbours.length; n++) {
+                int candidate = postNeighbours[n];
+                if (!history.contains(candidate)) {
+                    scores.add(candidate, (double) postSimilarities[n] * weight);
+                }
+            }
+        }
+        return scores;
+    }
+
+    public int postCount() {
+        return neighbours.length;
+    }
+
+    public long getBuiltAt() {
+        return builtAt;
+    }
+}
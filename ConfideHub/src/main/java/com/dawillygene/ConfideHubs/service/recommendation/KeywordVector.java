@@ -0,0 +1,122 @@
+package com.dawillygene.ConfideHubs.service.recommendation;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A keyword set encoded as a bitset over a keyword {@link IdDictionary}: bit {@code i} is set when
+ * the keyword with index {@code i} is present. Intersection size is a popcount over the common
+ * words, so comparing two sets allocates nothing.
+ * Vectors are immutable; a user's preference vector is the {@link Union} of their posts' vectors.
+ */
+public final class KeywordVector {
+
+    public static final KeywordVector EMPTY = new KeywordVector(new long[0]);
+
+    private final long[] words;
+    private final int cardinality;
+
+    private KeywordVector(long[] words) {
+        this.words = words;
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        this.cardinality = count;
+    }
+
+    /**
+     * Encodes the keywords, interning any that the dictionary has not seen yet.
+     */
+    public static KeywordVector of(Collection<String> keywords, IdDictionary<String> dictionary) {
+        if (keywords == null || keywords.isEmpty()) {
+            return EMPTY;
+        }
+        long[] words = new long[0];
+        for (String keyword : keywords) {
+            int bit = dictionary.intern(keyword);
+            int word = bit >>> 6;
+            if (word >= words.length) {
+                words = Arrays.copyOf(words, word + 1);
+            }
+            words[word] |= 1L << bit;
+        }
+        return new KeywordVector(words);
+    }
+
+    /**
+     * @return number of keywords in the set
+     */
+    public int size() {
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return cardinality == 0;
+    }
+
+    public int intersectionSize(KeywordVector other) {
+        long[] otherWords = other.words;
+        int length = Math.min(words.length, otherWords.length);
+        int count = 0;
+        for (int i = 0; i < length; i++) {
+            count += Long.bitCount(words[i] & otherWords[i]);
+        }
+        return count;
+    }
+
+    /**
+     * Cosine similarity of two binary keyword vectors, {@code |A ∩ B| / sqrt(|A| × |B|)}, evaluated
+     * with the same operations as the set-based version so the results are bit-for-bit identical.
+     */
+    public double similarity(KeywordVector other) {
+        if (cardinality == 0 || other.cardinality == 0) {
+            return 0.0;
+        }
+        return (double) intersectionSize(other) / Math.sqrt(cardinality * other.cardinality);
+    }
+
+    /**
+     * Decodes the vector back into keyword strings.
+     */
+    public Set<String> toSet(IdDictionary<String> dictionary) {
+        Set<String> keywords = new HashSet<>(cardinality * 2);
+        for (int w = 0; w < words.length; w++) {
+            long word = words[w];
+            while (word != 0) {
+                keywords.add(dictionary.keyAt((w << 6) + Long.numberOfTrailingZeros(word)));
+                word &= word - 1;
+            }
+        }
+        return keywords;
+    }
+
+    public long estimatedHeapBytes() {
+        return 24L + 16 + 8L * words.length;
+    }
+
+    /**
+     * Mutable accumulator that ORs vectors together.
+     */
+    public static final class Union {
+
+        private long[] words = new long[0];
+
+        public Union add(KeywordVector vector) {
+            long[] other = vector.words;
+            if (other.length > words.length) {
+                words = Arrays.copyOf(words, other.length);
+            }
+            for (int i = 0; i < other.length; i++) {
+                words[i] |= other[i];
+            }
+            return this;
+        }
+
+        public KeywordVector build() {
+            return words.length == 0 ? EMPTY : new KeywordVector(words.clone());
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.dawillygene.ConfideHubs.service.recommendation;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Locality-sensitive index over users' interaction sets for approximate neighbour search.
+ * Every user's set of post indexes is sketched with {@code bands × rows} MinHash functions; each
+ * band of {@code rows} minima is hashed to a bucket, and two users are candidates when they share
+ * a bucket in at least one band. A pair with Jaccard similarity {@code s} becomes a candidate with
+ * probability {@code 1 - (1 - s^rows)^bands}: more bands raise recall and memory, more rows make
+ * buckets more selective and queries cheaper.
+ * <p>
+ * Each band is one sorted {@code long[]} of {@code (bucket hash << 32 | user index)}, so the index
+ * costs {@code 8 × bands} bytes per user with no per-bucket objects.
+ */
+public final class MinHashIndex {
+
+    private final int bands;
+    private final int rows;
+    private final long[] multipliers;
+    private final long[] increments;
+    private final long[][] buckets;
+    private final int userCount;
+    private final long builtAt;
+
+    private MinHashIndex(int bands, int rows, long[] multipliers, long[] increments, long[][] buckets,
+                         int userCount) {
+        this.bands = bands;
+        this.rows = rows;
+        this.multipliers = multipliers;
+        this.increments = increments;
+        this.buckets = buckets;
+        this.userCount = userCount;
+        this.builtAt = System.currentTimeMillis();
+    }
+
+    /**
+     * Sketches every user currently in the matrix, in parallel.
+     */
+    public static MinHashIndex build(InteractionMatrix matrix, int bands, int rows) {
+        if (bands < 1 || rows < 1) {
+            throw new IllegalArgumentException("MinHash bands and rows must be positive");
+        }
+        int hashes = bands * rows;
+        long[] multipliers = new long[hashes];
+        long[] increments = new long[hashes];
+        // Fixed seed: the same parameters always give the same hash functions
+        SplittableRandom random = new SplittableRandom(0x5DEECE66DL);
+        for (int i = 0; i < hashes; i++) {
+            multipliers[i] = random.nextLong() | 1;
+            increments[i] = random.nextLong();
+        }
+
+        int userCount = matrix.userCount();
+        int[] bandHashes = new int[userCount * bands];
+        boolean[] sketched = new boolean[userCount];
+        IntStream.range(0, userCount).parallel().forEach(user -> {
+            SparseRow row = matrix.row(user);
+            if (!row.isEmpty()) {
+                bandHashes(row, bands, rows, multipliers, increments, bandHashes, user * bands);
+                sketched[user] = true;
+            }
+        });
+
+        long[][] buckets = new long[bands][];
+        IntStream.range(0, bands).parallel().forEach(band -> {
+            long[] entries = new long[userCount];
+            int size = 0;
+            for (int user = 0; user < userCount; user++) {
+                if (sketched[user]) {
+                    entries[size++] = ((long) bandHashes[user * bands + band] << 32) | user;
+                }
+            }
+            long[] sorted = Arrays.copyOf(entries, size);
+            Arrays.sort(sorted);
+            buckets[band] = sorted;
+        });
+        return new MinHashIndex(bands, rows, multipliers, increments, buckets, userCount);
+    }
+
+    /**
+     * Users sharing at least one bucket with the given interaction row, excluding
+     * {@code excludeUser}. The row is sketched on the fly, so a user whose history changed since
+     * the build is looked up by their current interactions.
+     *
+     * @return candidate user index → number of bands shared
+     */
+    public IntDoubleMap candidates(SparseRow row, int excludeUser) {
+        IntDoubleMap candidates = new IntDoubleMap(64);
+        if (row.isEmpty()) {
+            return candidates;
+        }
+        int[] query = new int[bands];
+        bandHashes(row, bands, rows, multipliers, increments, query, 0);
+        for (int band = 0; band < bands; band++) {
+            long[] entries = buckets[band];
+            long key = (long) query[band] << 32;
+            int position = Arrays.binarySearch(entries, key);
+            if (position < 0) {
+                position = -position - 1;
+            }
+            // Signed comparison of the high half, matching the sort order
+            while (position < entries.length && (int) (entries[position] >> 32) == query[band]) {
+                int user = (int) entries[position];
+                if (user != excludeUser) {
+                    candidates.add(user, 1);
+                }
+                position++;
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Fills {@code out[offset .. offset + bands)} with one hash per band of the row's MinHash
+     * signature.
+     */
+    private static void bandHashes(SparseRow row, int bands, int rows, long[] multipliers, long[] increments,
+                                   int[] out, int offset) {
+        for (int band = 0; band < bands; band++) {
+            int bandHash = 1;
+            for (int r = 0; r < rows; r++) {
+                int function = band * rows + r;
+                long min = Long.MAX_VALUE;
+                for (int i = 0; i < row.size(); i++) {
+                    long h = mix(row.indexAt(i) * multipliers[function] + increments[function]);
+                    if (h < min) {
+                        min = h;
+                    }
+                }
+                bandHash = 31 * bandHash + Long.hashCode(min);
+            }
+            out[offset + band] = bandHash;
+        }
+    }
+
+    // 64-bit finaliser from MurmurHash3
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    public int bands() {
+        return bands;
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    /**
+     * @return number of users in the matrix when the index was built
+     */
+    public int userCount() {
+        return userCount;
+    }
+
+    public long getBuiltAt() {
+        return builtAt;
+    }
+
+    public long estimatedHeapBytes() {
+        long bytes = 48L + 16 + 8L * multipliers.length * 2 + 16 + 4L * bands;
+        for (long[] band : buckets) {
+            bytes += 16 + 8L * band.length;
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,56 @@
+package com.dawillygene.ConfideHubs.service.recommendation;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tells whether a user's precomputed recommendations can be served instead of a live ranking.
+ * <p>
+ * A row is fresh when the model it was ranked with already held the user's latest interaction.
+ * Model versions are publish times in epoch milliseconds, so a row can be compared with the
+ * persisted time of the user's last interaction; that check alone survives restarts. Interactions
+ * seen by this instance are also tracked by the version of the model that first holds them, which
+ * covers a row ranked after the interaction was stored but before it reached the model.
+ * <p>
+ * A user's entry is dropped once a row at least as new as it has been written, so only users who
+ * interacted since their last precomputation are held. Thread-safe.
+ */
+public final class PrecomputedFreshness {
+
+    // Lowest version a user's rows must have to include their latest interaction
+    private final Map<Long, Long> changedAt = new ConcurrentHashMap<>();
+
+    /**
+     * Records an interaction of the user that first appears in the model of {@code version}.
+     */
+    public void userChanged(Long userId, long version) {
+        changedAt.merge(userId, version, Math::max);
+    }
+
+    /**
+     * Records that rows of {@code version} were written for the users, so interactions they
+     * include no longer make those users' rows stale.
+     */
+    public void precomputed(long version, Collection<Long> userIds) {
+        for (Long userId : userIds) {
+            changedAt.computeIfPresent(userId, (id, changed) -> changed <= version ? null : changed);
+        }
+    }
+
+    /**
+     * @param persistedChangedAt epoch milliseconds of the user's last stored interaction, or
+     *                           {@link Long#MIN_VALUE} if the user never interacted
+     * @return whether a row of the user ranked with the model of {@code version} can be served
+     */
+    public boolean isFresh(Long userId, long version, long persistedChangedAt) {
+        return version >= persistedChangedAt && version >= changedAt.getOrDefault(userId, Long.MIN_VALUE);
+    }
+
+    /**
+     * @return number of users whose latest interaction is not in a precomputed row yet
+     */
+    public int changedUserCount() {
+        return changedAt.size();
+    }
+}
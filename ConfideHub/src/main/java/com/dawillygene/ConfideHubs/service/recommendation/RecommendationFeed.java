@@ -0,0 +1,77 @@
+package com.dawillygene.ConfideHubs.service.recommendation;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * A user's ranked candidate list, kept for a short time so later pages of the feed are slices of
+ * it rather than a new ranking. Post ids rather than indexes are stored, so the list stays valid
+ * when a new model with a different post dictionary is published.
+ * <p>
+ * A feed started from the user's precomputed recommendations is incomplete: it holds only that
+ * short list, and is {@link #extend extended} with a live ranking when a page reaches past it.
+ *
+ * @param id           random id that cursors refer to; a new ranking gets a new id
+ * @param modelVersion version of the model the list was ranked with
+ * @param postIds      ranked post ids, best first
+ * @param complete     whether the list goes as deep as the feed does
+ */
+public record RecommendationFeed(long id, long modelVersion, String[] postIds, boolean complete) {
+
+    public int size() {
+        return postIds.length;
+    }
+
+    /**
+     * Appends a full ranking to an incomplete feed, skipping the posts it already lists, so pages
+     * already served keep their positions and cursors into this feed stay valid.
+     *
+     * @return the complete feed, with this feed's id and at most {@code depth} posts (never fewer
+     * than it already has)
+     */
+    public RecommendationFeed extend(RecommendationFeed ranked, int depth) {
+        Set<String> merged = new LinkedHashSet<>(Arrays.asList(postIds));
+        for (String postId : ranked.postIds()) {
+            if (merged.size() >= depth) {
+                break;
+            }
+            merged.add(postId);
+        }
+        return new RecommendationFeed(id, ranked.modelVersion(), merged.toArray(String[]::new), true);
+    }
+
+    /**
+     * Position in one feed. Clients get it as an opaque URL-safe string.
+     */
+    public record Cursor(long feedId, int offset) {
+
+        public String encode() {
+            byte[] text = (Long.toHexString(feedId) + ":" + offset).getBytes(StandardCharsets.UTF_8);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(text);
+        }
+
+        /**
+         * @return the decoded cursor, or null if the value is missing or malformed
+         */
+        public static Cursor decode(String value) {
+            if (value == null || value.isBlank()) {
+                return null;
+            }
+            try {
+                String text = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+                int separator = text.indexOf(':');
+                if (separator < 0) {
+                    return null;
+                }
+                long feedId = Long.parseUnsignedLong(text.substring(0, separator), 16);
+                int offset = Integer.parseInt(text.substring(separator + 1));
+                return offset >= 0 ? new Cursor(feedId, offset) : null;
+            } catch (IllegalArgumentException e) {
+                return null; // Also covers NumberFormatException
+            }
+        }
+    }
+}
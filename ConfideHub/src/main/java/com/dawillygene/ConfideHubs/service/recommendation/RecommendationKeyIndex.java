@@ -0,0 +1,80 @@
+package com.dawillygene.ConfideHubs.service.recommendation;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * The keys of the cached recommendation lists of each user and of the lists that contain each
+ * post, so invalidating a user or a post evicts exactly those entries instead of scanning the
+ * whole cache. Keys of lists the cache dropped on its own stay indexed until {@link #retain}
+ * prunes them; evicting such a key is a no-op.
+ * <p>
+ * Thread-safe: every change to one user's or post's keys is atomic.
+ */
+public final class RecommendationKeyIndex {
+
+    private final Map<Long, Set<String>> keysByUser = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> keysByPost = new ConcurrentHashMap<>();
+
+    /**
+     * Records a cached list of the user under {@code key}. Call before the list is cached, so an
+     * invalidation racing with the write still finds the key.
+     */
+    public void add(String key, Long userId, Collection<String> postIds) {
+        add(keysByUser, userId, key);
+        for (String postId : postIds) {
+            add(keysByPost, postId, key);
+        }
+    }
+
+    /**
+     * @return the keys of the user's lists, which are no longer indexed under the user
+     */
+    public Set<String> removeUser(Long userId) {
+        Set<String> keys = keysByUser.remove(userId);
+        return keys != null ? keys : Set.of();
+    }
+
+    /**
+     * @return the keys of the lists containing the post, which are no longer indexed under it
+     */
+    public Set<String> removePost(String postId) {
+        Set<String> keys = keysByPost.remove(postId);
+        return keys != null ? keys : Set.of();
+    }
+
+    /**
+     * Forgets the keys {@code cached} rejects, and the users and posts left without keys.
+     */
+    public void retain(Predicate<String> cached) {
+        retain(keysByUser, cached);
+        retain(keysByPost, cached);
+    }
+
+    /**
+     * @return number of users and posts with indexed keys
+     */
+    public int size() {
+        return keysByUser.size() + keysByPost.size();
+    }
+
+    private static <K> void add(Map<K, Set<String>> index, K id, String key) {
+        index.compute(id, (ignored, keys) -> {
+            Set<String> updated = keys != null ? keys : ConcurrentHashMap.newKeySet();
+            updated.add(key);
+            return updated;
+        });
+    }
+
+    private static <K> void retain(Map<K, Set<String>> index, Predicate<String> cached) {
+        for (K id : index.keySet()) {
+            index.computeIfPresent(id, (ignored, keys) -> {
+                keys.removeIf(cached.negate());
+                return keys.isEmpty() ? null : keys;
+            });
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.dawillygene.ConfideHubs.service.recommendation;
+
+/**
+ * Scoring engine used by {@code RecommendationService}. Every mode blends its collaborative
+ * score with the content-based score using the same weights.
+ */
+public enum RecommendationMode {
+    /** User-based collaborative filtering: cosine similarity between users. */
+    HYBRID,
+    /** Item-based collaborative filtering over precomputed top-K post neighbour lists. */
+    ITEM_BASED,
+    /** User-based collaborative filtering restricted to MinHash/LSH candidate neighbours. */
+    APPROXIMATE,
+    /** Dot product of user and post embeddings from the implicit-feedback ALS model. */
+    ALS;
+
+    /**
+     * Parses a request or configuration value such as {@code "item-based"}; falls back to the
+     * given default for blank or unknown values.
+     */
+    public static RecommendationMode from(String value, RecommendationMode fallback) {
+        if (value == null || value.isBlank()) {
+            return fallback;
+        }
+        String normalized = value.trim().toUpperCase().replace('-', '_');
+        for (RecommendationMode mode : values()) {
+            if (mode.name().equals(normalized)) {
+                return mode;
+            }
+        }
+        return fallback;
+    }
+}
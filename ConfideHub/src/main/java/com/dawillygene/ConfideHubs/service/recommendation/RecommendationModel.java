@@ -0,0 +1,246 @@
+package com.dawillygene.ConfideHubs.service.recommendation;
+
+import java.util.Collection;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Everything needed to rank posts for a user: the interaction matrix, the content index and,
+ * optionally, the item similarity model, the MinHash neighbour index, the ALS model and the
+ * stored user neighbourhoods, plus the hybrid weights.
+ * Built over {@link InteractionMatrix#snapshot()} and {@link ContentIndex#snapshot()} it is an
+ * immutable, versioned view that many threads can score against while events keep updating the
+ * live state; this is what the service publishes. Built over the live structures directly (as
+ * tests do) every update is visible immediately.
+ */
+public final class RecommendationModel {
+
+    /**
+     * Version of a model over the live, continuously updated state.
+     */
+    public static final long LIVE_VERSION = 0;
+
+    private final long version;
+    private final InteractionMatrix matrix;
+    private final ContentIndex content;
+    private final ItemSimilarityModel itemModel;
+    private final MinHashIndex neighbourIndex;
+    private final AlsModel alsModel;
+    private final UserNeighbourhoods userNeighbourhoods;
+    private final ColdStartLists coldStart;
+    private final double collaborativeWeight;
+    private final double contentWeight;
+
+    /**
+     * @param version        {@link #LIVE_VERSION}, or an increasing number identifying a snapshot
+     * @param itemModel      may be null; {@link RecommendationMode#ITEM_BASED} then falls back to user-based CF
+     * @param neighbourIndex may be null; {@link RecommendationMode#APPROXIMATE} then falls back to exact CF
+     * @param alsModel       may be null; {@link RecommendationMode#ALS} then falls back to user-based CF
+     * @param userNeighbourhoods may be null; user-based CF then finds every user's neighbours per request
+     * @param coldStart      may be null; every user is then ranked by the full engine
+     */
+    public RecommendationModel(long version, InteractionMatrix matrix, ContentIndex content,
+                               ItemSimilarityModel itemModel, MinHashIndex neighbourIndex, AlsModel alsModel,
+                               UserNeighbourhoods userNeighbourhoods, ColdStartLists coldStart,
+                               double collaborativeWeight, double contentWeight) {
+        this.version = version;
+        this.matrix = matrix;
+        this.content = content;
+        this.itemModel = itemModel;
+        this.neighbourIndex = neighbourIndex;
+        this.alsModel = alsModel;
+        this.userNeighbourhoods = userNeighbourhoods;
+        this.coldStart = coldStart;
+        this.collaborativeWeight = collaborativeWeight;
+        this.contentWeight = contentWeight;
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public InteractionMatrix matrix() {
+        return matrix;
+    }
+
+    public ContentIndex content() {
+        return content;
+    }
+
+    public ItemSimilarityModel itemModel() {
+        return itemModel;
+    }
+
+    public MinHashIndex neighbourIndex() {
+        return neighbourIndex;
+    }
+
+    public AlsModel alsModel() {
+        return alsModel;
+    }
+
+    public UserNeighbourhoods userNeighbourhoods() {
+        return userNeighbourhoods;
+    }
+
+    public ColdStartLists coldStart() {
+        return coldStart;
+    }
+
+    /**
+     * Whether the user has too little history for CF and is served from the cold-start lists.
+     */
+    public boolean isColdStart(Long userId) {
+        return coldStart != null && coldStart.isCold(matrix.rowOf(userId));
+    }
+
+    /**
+     * Cold-start ranking from the popularity lists of the user's interests; see
+     * {@link ColdStartLists#rank}. Deleted and expired posts and posts the user interacted with
+     * are skipped.
+     */
+    public TopK rankColdStart(Long userId, Collection<String> interests, int n) {
+        SparseRow history = matrix.rowOf(userId);
+        long now = System.currentTimeMillis();
+        return coldStart.rank(interests, n,
+                postIndex -> content.isCandidate(postIndex, now) && !history.contains(postIndex));
+    }
+
+    /**
+     * @return whether the post is known, not deleted and not expired at {@code now}
+     */
+    public boolean isCandidate(String postId, long now) {
+        return content.isCandidate(matrix.postIndex(postId), now);
+    }
+
+    public String postId(int postIndex) {
+        return matrix.postId(postIndex);
+    }
+
+    /**
+     * Scores every known post the user has not interacted with and keeps the best {@code n} in a
+     * bounded heap; no per-post score map is built.
+     *
+     * @return the selected post indexes (shared post dictionary) with their final scores
+     */
+    public TopK rank(Long userId, int n, RecommendationMode mode) {
+        SparseRow history = matrix.rowOf(userId);
+        long now = System.currentTimeMillis();
+        // CF scores are linear in the stored weights; one factor decays them all to now
+        double weightScale = matrix.weightScale(now);
+        IntToDoubleFunction cfScores;
+        if (mode == RecommendationMode.ITEM_BASED && itemModel != null) {
+            IntDoubleMap scores = itemModel.score(history);
+            cfScores = postIndex -> weightScale * scores.get(postIndex);
+        } else if (mode == RecommendationMode.APPROXIMATE && neighbourIndex != null) {
+            IntDoubleMap scores = approximateCollaborativeScores(userId);
+            cfScores = postIndex -> weightScale * scores.get(postIndex);
+        } else if (mode == RecommendationMode.ALS && alsModel != null) {
+            float[] userVector = alsModel.userVector(history, weightScale);
+            cfScores = postIndex -> alsModel.score(userVector, postIndex);
+        } else {
+            IntDoubleMap scores = userNeighbourhoods != null
+                    ? neighbourhoodScores(userId) : collaborativeScores(userId);
+            cfScores = postIndex -> weightScale * scores.get(postIndex);
+        }
+        KeywordVector userKeywords = content.preferences(userId);
+
+        TopK ranked = new TopK(n);
+        for (int postIndex = 0; postIndex < content.postCount(); postIndex++) {
+            KeywordVector postKeywords = content.features(postIndex);
+            if (postKeywords == null || content.expiresAt(postIndex) <= now || history.contains(postIndex)) {
+                continue; // Deleted or expired post, or one the user already interacted with
+            }
+            double cfScore = cfScores.applyAsDouble(postIndex);
+            double cbScore = userKeywords != null ? userKeywords.similarity(postKeywords) : 0.0;
+            ranked.offer(postIndex, (collaborativeWeight * cfScore) + (contentWeight * cbScore));
+        }
+        return ranked;
+    }
+
+    /**
+     * User-based CF restricted to users who share at least one post with the target; everyone
+     * else has cosine similarity 0 and cannot contribute. Neighbours are found through the
+     * matrix's post → users index and candidate posts come from the neighbours' rows only.
+     *
+     * @return CF score per post index
+     */
+    public IntDoubleMap collaborativeScores(Long targetUserId) {
+        int targetUserIndex = matrix.userIndex(targetUserId);
+        SparseRow targetUserInteractions = matrix.row(targetUserIndex);
+        IntDoubleMap scores = new IntDoubleMap(256);
+        if (targetUserInteractions.isEmpty()) {
+            return scores;
+        }
+
+        addNeighbourScores(targetUserInteractions, matrix.coReactionDotProducts(targetUserIndex), scores);
+        return scores;
+    }
+
+    /**
+     * User-based CF over the user's stored neighbourhood: only the rows of those N neighbours are
+     * read, weighted by the stored similarities. Users without a list yet are scored by
+     * {@link #collaborativeScores(Long)}.
+     *
+     * @return CF score per post index
+     */
+    public IntDoubleMap neighbourhoodScores(Long targetUserId) {
+        UserNeighbourhoods.Neighbourhood neighbourhood = userNeighbourhoods.get(targetUserId);
+        if (neighbourhood == null) {
+            return collaborativeScores(targetUserId);
+        }
+        SparseRow targetUserInteractions = matrix.rowOf(targetUserId);
+        IntDoubleMap scores = new IntDoubleMap(256);
+        for (int n = 0; n < neighbourhood.size(); n++) {
+            SparseRow userInteractions = matrix.rowOf(neighbourhood.userIds()[n]);
+            double similarity = neighbourhood.similarities()[n];
+            for (int i = 0; i < userInteractions.size(); i++) {
+                int postIndex = userInteractions.indexAt(i);
+                if (!targetUserInteractions.contains(postIndex)) {
+                    scores.add(postIndex, similarity * userInteractions.valueAt(i));
+                }
+            }
+        }
+        return scores;
+    }
+
+    /**
+     * User-based CF over the neighbours proposed by the {@link MinHashIndex} only. Similarities of
+     * those candidates are exact, so the scores equal {@link #collaborativeScores(Long)} minus the
+     * contributions of the neighbours LSH missed.
+     *
+     * @return CF score per post index
+     */
+    public IntDoubleMap approximateCollaborativeScores(Long targetUserId) {
+        int targetUserIndex = matrix.userIndex(targetUserId);
+        SparseRow targetUserInteractions = matrix.row(targetUserIndex);
+        IntDoubleMap scores = new IntDoubleMap(256);
+        if (targetUserInteractions.isEmpty()) {
+            return scores;
+        }
+
+        IntDoubleMap candidates = neighbourIndex.candidates(targetUserInteractions, targetUserIndex);
+        IntDoubleMap dotProducts = new IntDoubleMap(candidates.size());
+        for (int n = 0; n < candidates.size(); n++) {
+            int userIndex = candidates.keyAt(n);
+            double dot = targetUserInteractions.dot(matrix.row(userIndex));
+            if (dot > 0) {
+                dotProducts.add(userIndex, dot);
+            }
+        }
+        addNeighbourScores(targetUserInteractions, dotProducts, scores);
+        return scores;
+    }
+
+    private void addNeighbourScores(SparseRow targetUserInteractions, IntDoubleMap dotProducts, IntDoubleMap scores) {
+        for (int n = 0; n < dotProducts.size(); n++) {
+            SparseRow userInteractions = matrix.row(dotProducts.keyAt(n));
+            double similarity = dotProducts.valueAt(n) / (targetUserInteractions.norm() * userInteractions.norm());
+            for (int i = 0; i < userInteractions.size(); i++) {
+                int postIndex = userInteractions.indexAt(i);
+                if (!targetUserInteractions.contains(postIndex)) {
+                    scores.add(postIndex, similarity * userInteractions.valueAt(i));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.dawillygene.ConfideHubs.service.recommendation;
+
+import java.util.Arrays;
+
+/**
+ * One compressed row of a sparse matrix: strictly increasing column indexes with
+ * their weights, stored in two parallel primitive arrays.
+ * Rows are immutable, which lets them be shared between threads without locking; updates
+ * produce a new row through {@link #plus(int, float)} or {@link #minus(int)}.
+ */
+public final class SparseRow {
+
+    public static final SparseRow EMPTY = new SparseRow(new int[0], new float[0]);
+
+    private final int[] indexes;
+    private final float[] values;
+    private final double norm;
+
+    /**
+     * @param indexes column indexes in strictly increasing order
+     * @param values  weights for the matching columns
+     */
+    public SparseRow(int[] indexes, float[] values) {
+        if (indexes.length != values.length) {
+            throw new IllegalArgumentException("Indexes and values must have the same length");
+        }
+        this.indexes = indexes;
+        this.values = values;
+        double sumOfSquares = 0;
+        for (float value : values) {
+            sumOfSquares += (double) value * value;
+        }
+        this.norm = Math.sqrt(sumOfSquares);
+    }
+
+    public int size() {
+        return indexes.length;
+    }
+
+    public boolean isEmpty() {
+        return indexes.length == 0;
+    }
+
+    public int indexAt(int position) {
+        return indexes[position];
+    }
+
+    public float valueAt(int position) {
+        return values[position];
+    }
+
+    /**
+     * @return the Euclidean length of the row
+     */
+    public double norm() {
+        return norm;
+    }
+
+    public boolean contains(int index) {
+        return Arrays.binarySearch(indexes, index) >= 0;
+    }
+
+    public float get(int index) {
+        int position = Arrays.binarySearch(indexes, index);
+        return position >= 0 ? values[position] : 0f;
+    }
+
+    /**
+     * Dot product computed as a merge join over the two sorted index arrays.
+     */
+    public double dot(SparseRow other) {
+        int[] otherIndexes = other.indexes;
+        float[] otherValues = other.values;
+        int i = 0;
+        int j = 0;
+        double dot = 0;
+        while (i < indexes.length && j < otherIndexes.length) {
+            int a = indexes[i];
+            int b = otherIndexes[j];
+            if (a == b) {
+                dot += (double) values[i] * otherValues[j];
+                i++;
+                j++;
+            } else if (a < b) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return dot;
+    }
+
+    public double cosineSimilarity(SparseRow other) {
+        if (norm == 0 || other.norm == 0) {
+            return 0;
+        }
+        return dot(other) / (norm * other.norm);
+    }
+
+    /**
+     * Returns a copy of this row with {@code delta} added to the given column. Columns whose
+     * weight drops to zero or below are removed, so rows never hold stale zero entries.
+     */
+    public SparseRow plus(int index, float delta) {
+        int position = Arrays.binarySearch(indexes, index);
+        if (position >= 0) {
+            float updated = values[position] + delta;
+            if (updated > 0) {
+                float[] newValues = values.clone();
+                newValues[position] = updated;
+                return new SparseRow(indexes, newValues);
+            }
+            return without(position);
+        }
+        if (delta <= 0) {
+            return this;
+        }
+        int insertAt = -position - 1;
+        int[] newIndexes = new int[indexes.length + 1];
+        float[] newValues = new float[values.length + 1];
+        System.arraycopy(indexes, 0, newIndexes, 0, insertAt);
+        System.arraycopy(values, 0, newValues, 0, insertAt);
+        newIndexes[insertAt] = index;
+        newValues[insertAt] = delta;
+        System.arraycopy(indexes, insertAt, newIndexes, insertAt + 1, indexes.length - insertAt);
+        System.arraycopy(values, insertAt, newValues, insertAt + 1, values.length - insertAt);
+        return new SparseRow(newIndexes, newValues);
+    }
+
+    /**
+     * Returns a copy of this row without the given column, or this row if the column is absent.
+     */
+    public SparseRow minus(int index) {
+        int position = Arrays.binarySearch(indexes, index);
+        return position >= 0 ? without(position) : this;
+    }
+
+    private SparseRow without(int position) {
+        if (indexes.length == 1) {
+            return EMPTY;
+        }
+        int[] newIndexes = new int[indexes.length - 1];
+        float[] newValues = new float[values.length - 1];
+        System.arraycopy(indexes, 0, newIndexes, 0, position);
+        System.arraycopy(values, 0, newValues, 0, position);
+        System.arraycopy(indexes, position + 1, newIndexes, position, indexes.length - position - 1);
+        System.arraycopy(values, position + 1, newValues, position, values.length - position - 1);
+        return new SparseRow(newIndexes, newValues);
+    }
+
+    /**
+     * Shallow size of this row: object header, the two arrays and the cached norm.
+     */
+    public long estimatedHeapBytes() {
+        return 32L + 16 + 4L * indexes.length + 16 + 4L * values.length;
+    }
+}
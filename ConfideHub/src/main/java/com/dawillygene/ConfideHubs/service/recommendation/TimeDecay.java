@@ -0,0 +1,78 @@
+package com.dawillygene.ConfideHubs.service.recommendation;
+
+/**
+ * Exponential decay of interaction weights with a global scale factor, so nothing is rewritten
+ * as time passes.
+ * <p>
+ * A weight {@code w} recorded at time {@code t} is stored as {@code w × 2^((t − epoch) / halfLife)}
+ * and read back as {@code stored × scale(now)}, where
+ * {@code scale(now) = 2^(−(now − epoch) / halfLife)} is shared by every entry. Decay is therefore
+ * a single multiplication when a score is read. Stored values of new interactions grow with
+ * time, so the epoch is moved forward with {@link #rebasedTo(long)} once {@link #needsRebase(long)}
+ * says they are getting large; that is the only pass that touches every entry.
+ * Instances are immutable.
+ */
+public final class TimeDecay {
+
+    /** No decay: stored weights are the weights. */
+    public static final TimeDecay NONE = new TimeDecay(0, 0);
+
+    // Stored weights grow 2^20-fold before a rebase; floats only overflow at 2^128
+    private static final double REBASE_AFTER_HALF_LIVES = 20;
+
+    private final long halfLifeMillis;
+    private final long epochMillis;
+    private final double ratePerMilli;
+
+    /**
+     * @param halfLifeMillis time for a weight to halve; 0 or less disables decay
+     * @param epochMillis    time at which stored weights equal the real weights
+     */
+    public TimeDecay(long halfLifeMillis, long epochMillis) {
+        this.halfLifeMillis = Math.max(0, halfLifeMillis);
+        this.epochMillis = epochMillis;
+        this.ratePerMilli = this.halfLifeMillis > 0 ? Math.log(2) / this.halfLifeMillis : 0;
+    }
+
+    public boolean isEnabled() {
+        return ratePerMilli > 0;
+    }
+
+    public long halfLifeMillis() {
+        return halfLifeMillis;
+    }
+
+    public long epochMillis() {
+        return epochMillis;
+    }
+
+    /**
+     * @return the stored form of a weight recorded at {@code atMillis}
+     */
+    public float encode(float weight, long atMillis) {
+        return ratePerMilli == 0 ? weight : (float) (weight * Math.exp(ratePerMilli * (atMillis - epochMillis)));
+    }
+
+    /**
+     * @return the factor that turns stored weights into weights decayed to {@code nowMillis}
+     */
+    public double scale(long nowMillis) {
+        return ratePerMilli == 0 ? 1.0 : Math.exp(-ratePerMilli * (nowMillis - epochMillis));
+    }
+
+    /**
+     * @return whether stored weights of interactions made at {@code nowMillis} have grown large
+     * enough that the epoch should move forward
+     */
+    public boolean needsRebase(long nowMillis) {
+        return ratePerMilli > 0 && nowMillis - epochMillis > REBASE_AFTER_HALF_LIVES * halfLifeMillis;
+    }
+
+    /**
+     * The same decay with the epoch moved to {@code newEpochMillis}; stored weights are converted
+     * by multiplying them with {@code scale(newEpochMillis)} of this instance.
+     */
+    public TimeDecay rebasedTo(long newEpochMillis) {
+        return new TimeDecay(halfLifeMillis, newEpochMillis);
+    }
+}
@@ -0,0 +1,128 @@
+package com.dawillygene.ConfideHubs.service.recommendation;
+
+/**
+ * Bounded selection of the k highest-scoring int ids using a primitive min-heap.
+ * Offering n candidates costs O(n log k) time and O(k) memory; candidates below the current
+ * k-th best are rejected with a single comparison.
+ */
+public final class TopK {
+
+    private final int capacity;
+    private final int[] heapIndexes;
+    private final double[] heapScores;
+    private int size;
+
+    public TopK(int capacity) {
+        this.capacity = Math.max(0, capacity);
+        this.heapIndexes = new int[this.capacity];
+        this.heapScores = new double[this.capacity];
+    }
+
+    public void offer(int index, double score) {
+        if (capacity == 0) {
+            return;
+        }
+        if (size < capacity) {
+            heapIndexes[size] = index;
+            heapScores[size] = score;
+            siftUp(size++);
+        } else if (score > heapScores[0]) {
+            heapIndexes[0] = index;
+            heapScores[0] = score;
+            siftDown(0);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the smallest score that would still be kept, or negative infinity while not full
+     */
+    public double threshold() {
+        return size < capacity ? Double.NEGATIVE_INFINITY : heapScores[0];
+    }
+
+    /**
+     * @return the selected ids ordered by descending score
+     */
+    public int[] indexes() {
+        int[] order = sortedPositions();
+        int[] result = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            result[i] = heapIndexes[order[i]];
+        }
+        return result;
+    }
+
+    /**
+     * @return the selected scores ordered by descending score, aligned with {@link #indexes()}
+     */
+    public double[] scores() {
+        int[] order = sortedPositions();
+        double[] result = new double[order.length];
+        for (int i = 0; i < order.length; i++) {
+            result[i] = heapScores[order[i]];
+        }
+        return result;
+    }
+
+    public float[] scoresAsFloats() {
+        double[] scores = scores();
+        float[] result = new float[scores.length];
+        for (int i = 0; i < scores.length; i++) {
+            result[i] = (float) scores[i];
+        }
+        return result;
+    }
+
+    private int[] sortedPositions() {
+        // Insertion sort on a copy of heap positions; k is small
+        int[] positions = new int[size];
+        for (int i = 0; i < size; i++) {
+            int j = i;
+            while (j > 0 && heapScores[positions[j - 1]] < heapScores[i]) {
+                positions[j] = positions[j - 1];
+                j--;
+            }
+            positions[j] = i;
+        }
+        return positions;
+    }
+
+    private void siftUp(int position) {
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (heapScores[parent] <= heapScores[position]) {
+                return;
+            }
+            swap(parent, position);
+            position = parent;
+        }
+    }
+
+    private void siftDown(int position) {
+        while (true) {
+            int left = 2 * position + 1;
+            if (left >= size) {
+                return;
+            }
+            int smallest = left + 1 < size && heapScores[left + 1] < heapScores[left] ? left + 1 : left;
+            if (heapScores[position] <= heapScores[smallest]) {
+                return;
+            }
+            swap(position, smallest);
+            position = smallest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        int index = heapIndexes[a];
+        heapIndexes[a] = heapIndexes[b];
+        heapIndexes[b] = index;
+        double score = heapScores[a];
+        heapScores[a] = heapScores[b];
+        heapScores[b] = score;
+    }
+}
@@ -0,0 +1,207 @@
+package com.dawillygene.ConfideHubs.service.recommendation;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+/**
+ * The top-N most similar users of every user, by cosine similarity of their interaction rows,
+ * with the similarities. User-based CF then reads only those N neighbours' rows per request
+ * instead of finding and scoring every co-reacting user.
+ * <p>
+ * Lists are keyed by user id rather than matrix index, so they survive a full rebuild of the
+ * matrix and are persisted as they are. Each list is immutable and replaced as a whole, so
+ * {@link #copy} is cheap and an instance being refreshed never shares changes with a published
+ * one; writers are not thread-safe and callers synchronize them.
+ * <p>
+ * Similarity is symmetric: recomputing one user's list also yields their new similarity to every
+ * co-reacting user, which is patched into those users' lists. A user whose similarity to someone
+ * dropped to zero stays in that user's list until it is recomputed; periodic full builds clear
+ * such leftovers.
+ */
+public final class UserNeighbourhoods {
+
+    /**
+     * Neighbour user ids ordered by descending similarity, aligned with their similarities.
+     */
+    public record Neighbourhood(long[] userIds, float[] similarities) {
+
+        public int size() {
+            return userIds.length;
+        }
+
+        public boolean includes(long userId) {
+            for (long neighbour : userIds) {
+                if (neighbour == userId) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private final int capacity;
+    private final Map<Long, Neighbourhood> lists = new ConcurrentHashMap<>();
+
+    /**
+     * @param capacity number of neighbours kept per user
+     */
+    public UserNeighbourhoods(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Computes the list of every user currently in the matrix, in parallel.
+     */
+    public static UserNeighbourhoods build(InteractionMatrix matrix, int capacity) {
+        UserNeighbourhoods neighbourhoods = new UserNeighbourhoods(capacity);
+        int userCount = matrix.userCount();
+        IntStream.range(0, userCount).parallel().forEach(userIndex -> {
+            if (!matrix.row(userIndex).isEmpty()) {
+                neighbourhoods.lists.put(matrix.userId(userIndex), neighbourhoods.compute(matrix, userIndex));
+            }
+        });
+        return neighbourhoods;
+    }
+
+    /**
+     * @return a copy with the same lists, updated independently of this instance
+     */
+    public UserNeighbourhoods copy() {
+        UserNeighbourhoods copy = new UserNeighbourhoods(capacity);
+        copy.lists.putAll(lists);
+        return copy;
+    }
+
+    /**
+     * @return the user's neighbours, or null if no list has been computed for them yet
+     */
+    public Neighbourhood get(Long userId) {
+        return lists.get(userId);
+    }
+
+    /**
+     * Installs a list, e.g. one loaded from the database.
+     */
+    public void put(Long userId, Neighbourhood neighbourhood) {
+        lists.put(userId, neighbourhood);
+    }
+
+    public boolean contains(Long userId) {
+        return lists.containsKey(userId);
+    }
+
+    public int userCount() {
+        return lists.size();
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Recomputes the user's list from their current row and patches their new similarity into
+     * the lists of every co-reacting user. Users without a list are not given a partial one.
+     *
+     * @return ids of the users whose list changed, including this user's
+     */
+    public Set<Long> refresh(InteractionMatrix matrix, Long userId) {
+        Set<Long> changed = new HashSet<>();
+        int userIndex = matrix.userIndex(userId);
+        SparseRow userInteractions = matrix.row(userIndex);
+        if (userInteractions.isEmpty()) {
+            if (lists.remove(userId) != null) {
+                changed.add(userId);
+            }
+            return changed;
+        }
+
+        IntDoubleMap dotProducts = matrix.coReactionDotProducts(userIndex);
+        lists.put(userId, select(matrix, userInteractions, dotProducts));
+        changed.add(userId);
+        for (int n = 0; n < dotProducts.size(); n++) {
+            int otherIndex = dotProducts.keyAt(n);
+            Long otherId = matrix.userId(otherIndex);
+            Neighbourhood current = lists.get(otherId);
+            if (current == null) {
+                continue;
+            }
+            double norms = userInteractions.norm() * matrix.row(otherIndex).norm();
+            Neighbourhood patched = with(current, userId, (float) (dotProducts.valueAt(n) / norms));
+            if (patched != current) {
+                lists.put(otherId, patched);
+                changed.add(otherId);
+            }
+        }
+        return changed;
+    }
+
+    private Neighbourhood compute(InteractionMatrix matrix, int userIndex) {
+        return select(matrix, matrix.row(userIndex), matrix.coReactionDotProducts(userIndex));
+    }
+
+    private Neighbourhood select(InteractionMatrix matrix, SparseRow userInteractions, IntDoubleMap dotProducts) {
+        TopK top = new TopK(capacity);
+        for (int n = 0; n < dotProducts.size(); n++) {
+            double norms = userInteractions.norm() * matrix.row(dotProducts.keyAt(n)).norm();
+            if (norms > 0) {
+                top.offer(dotProducts.keyAt(n), dotProducts.valueAt(n) / norms);
+            }
+        }
+        int[] indexes = top.indexes();
+        long[] userIds = new long[indexes.length];
+        for (int i = 0; i < indexes.length; i++) {
+            userIds[i] = matrix.userId(indexes[i]);
+        }
+        return new Neighbourhood(userIds, top.scoresAsFloats());
+    }
+
+    /**
+     * @return the list with the user's similarity replaced or inserted in order and the tail cut
+     * to capacity, or the same instance if nothing changes
+     */
+    private Neighbourhood with(Neighbourhood list, long userId, float similarity) {
+        long[] ids = list.userIds();
+        float[] similarities = list.similarities();
+        int position = -1;
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] == userId) {
+                position = i;
+                break;
+            }
+        }
+        if (position >= 0 && similarities[position] == similarity) {
+            return list;
+        }
+        if (position < 0 && ids.length >= capacity
+                && (capacity == 0 || similarity <= similarities[ids.length - 1])) {
+            return list;
+        }
+
+        long[] newIds = new long[ids.length + 1];
+        float[] newSimilarities = new float[ids.length + 1];
+        int count = 0;
+        boolean inserted = false;
+        for (int i = 0; i < ids.length; i++) {
+            if (i == position) {
+                continue;
+            }
+            if (!inserted && similarity > similarities[i]) {
+                newIds[count] = userId;
+                newSimilarities[count++] = similarity;
+                inserted = true;
+            }
+            newIds[count] = ids[i];
+            newSimilarities[count++] = similarities[i];
+        }
+        if (!inserted) {
+            newIds[count] = userId;
+            newSimilarities[count++] = similarity;
+        }
+        count = Math.min(count, capacity);
+        return new Neighbourhood(Arrays.copyOf(newIds, count), Arrays.copyOf(newSimilarities, count));
+    }
+}
@@ -0,0 +1,161 @@
+package com.dawillygene.ConfideHubs.service.trending;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Weighted engagement per post over the last 5 minutes, hour and 24 hours, for the "hot" feed.
+ * <p>
+ * Each window is a ring of time buckets with a running total: an event adds to the bucket of its
+ * time, and moving to a new bucket clears only the buckets that fell out of the window, so both
+ * are constant time however long a post has been tracked. Resolution is 10 seconds, 1 minute and
+ * 15 minutes respectively. Posts with nothing left in the 24-hour window are dropped when ranked.
+ * <p>
+ * The hot score blends the three windows as engagement per hour:
+ * {@code 0.5 × (12 × last 5 min) + 0.3 × last hour + 0.2 × (last 24 h / 24)}, so a burst counts
+ * most but a single reaction cannot outrank steady activity.
+ * <p>
+ * Thread-safe: counters of one post are updated under its own lock.
+ */
+public final class EngagementWindows {
+
+    private static final long SECOND = 1_000;
+    private static final long MINUTE = 60 * SECOND;
+
+    /**
+     * A post's place in the hot order.
+     */
+    public record Ranked(String postId, double score) {
+    }
+
+    /**
+     * A ring of {@code buckets.length} buckets of {@code bucketMillis} each, ending at bucket {@code head}.
+     */
+    private static final class Window {
+
+        private final long bucketMillis;
+        private final float[] buckets;
+        private long head = Long.MIN_VALUE;
+        private double sum;
+
+        Window(long bucketMillis, int bucketCount) {
+            this.bucketMillis = bucketMillis;
+            this.buckets = new float[bucketCount];
+        }
+
+        void add(double weight, long atMillis) {
+            long bucket = atMillis / bucketMillis;
+            advance(bucket);
+            if (bucket <= head - buckets.length) {
+                return; // Already outside the window
+            }
+            buckets[slot(bucket)] += (float) weight;
+            sum += (float) weight;
+        }
+
+        double total(long nowMillis) {
+            advance(nowMillis / bucketMillis);
+            return Math.max(0, sum);
+        }
+
+        private void advance(long bucket) {
+            if (bucket <= head) {
+                return;
+            }
+            if (head == Long.MIN_VALUE || bucket - head >= buckets.length) {
+                Arrays.fill(buckets, 0);
+                sum = 0;
+            } else {
+                for (long b = head + 1; b <= bucket; b++) {
+                    sum -= buckets[slot(b)];
+                    buckets[slot(b)] = 0;
+                }
+            }
+            head = bucket;
+        }
+
+        private int slot(long bucket) {
+            return (int) Math.floorMod(bucket, (long) buckets.length);
+        }
+    }
+
+    private static final class Counters {
+
+        private final Window fiveMinutes = new Window(10 * SECOND, 30);
+        private final Window hour = new Window(MINUTE, 60);
+        private final Window day = new Window(15 * MINUTE, 96);
+
+        synchronized void add(double weight, long atMillis) {
+            fiveMinutes.add(weight, atMillis);
+            hour.add(weight, atMillis);
+            day.add(weight, atMillis);
+        }
+
+        synchronized double score(long nowMillis) {
+            return 0.5 * 12 * fiveMinutes.total(nowMillis)
+                    + 0.3 * hour.total(nowMillis)
+                    + 0.2 * day.total(nowMillis) / 24;
+        }
+
+        synchronized boolean isIdle(long nowMillis) {
+            return day.total(nowMillis) == 0;
+        }
+    }
+
+    private final Map<String, Counters> counters = new ConcurrentHashMap<>();
+
+    /**
+     * Adds weighted engagement at {@code atMillis}; a negative weight takes back a removed
+     * reaction.
+     */
+    public void add(String postId, double weight, long atMillis) {
+        if (weight == 0) {
+            return;
+        }
+        // Inside compute, so that rank cannot drop the counters between lookup and update
+        counters.compute(postId, (id, postCounters) -> {
+            Counters updated = postCounters != null ? postCounters : new Counters();
+            updated.add(weight, atMillis);
+            return updated;
+        });
+    }
+
+    public void remove(String postId) {
+        counters.remove(postId);
+    }
+
+    /**
+     * @return the post's hot score at {@code nowMillis}, 0 if it is not tracked
+     */
+    public double score(String postId, long nowMillis) {
+        Counters postCounters = counters.get(postId);
+        return postCounters != null ? postCounters.score(nowMillis) : 0;
+    }
+
+    public int size() {
+        return counters.size();
+    }
+
+    /**
+     * Scores every tracked post and drops those with no engagement left in the last 24 hours.
+     *
+     * @return up to {@code limit} posts with a positive score, hottest first, ties by id
+     */
+    public List<Ranked> rank(long nowMillis, int limit) {
+        List<Ranked> ranked = new ArrayList<>();
+        for (String postId : counters.keySet()) {
+            Counters postCounters = counters.computeIfPresent(postId,
+                    (id, current) -> current.isIdle(nowMillis) ? null : current);
+            double score = postCounters != null ? postCounters.score(nowMillis) : 0;
+            if (score > 0) {
+                ranked.add(new Ranked(postId, score));
+            }
+        }
+        ranked.sort(Comparator.comparingDouble(Ranked::score).reversed().thenComparing(Ranked::postId));
+        return ranked.size() > limit ? new ArrayList<>(ranked.subList(0, limit)) : ranked;
+    }
+}
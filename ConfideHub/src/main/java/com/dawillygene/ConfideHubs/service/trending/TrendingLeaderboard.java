@@ -0,0 +1,178 @@
+package com.dawillygene.ConfideHubs.service.trending;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * The top posts by trending score, in feed order: score descending, then newest first, then id.
+ * Pages are read by walking a skip list from the head, without locking; writers synchronize on
+ * the instance.
+ * <p>
+ * Only posts that rank high enough are kept, so the board also tracks a bound: the best-ranked
+ * entry known to be outside it. Every entry ranked before the bound is in its exact place. Entries
+ * after it may have outside posts between them, for example after a reaction was removed from a
+ * post on the board, so pages that reach past the bound are not served. Writes only ever move the
+ * bound up; {@link #load} resets it from the database.
+ */
+public final class TrendingLeaderboard {
+
+    /**
+     * A post's place in the trending order.
+     *
+     * @param expiresAt null for posts that never expire
+     */
+    public record Entry(String postId, double score, LocalDateTime createdAt, LocalDateTime expiresAt) {
+
+        boolean isLiveAt(LocalDateTime now) {
+            return expiresAt == null || expiresAt.isAfter(now);
+        }
+    }
+
+    static final Comparator<Entry> ORDER = Comparator.comparingDouble(Entry::score).reversed()
+            .thenComparing(Entry::createdAt, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(Entry::postId);
+
+    private final int capacity;
+    private final ConcurrentSkipListSet<Entry> ranked = new ConcurrentSkipListSet<>(ORDER);
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private volatile Entry bound;
+    private volatile boolean loaded;
+
+    // Writes made while a load is being read from the database, replayed on top of it; null values are removals
+    private Map<String, Entry> changesDuringLoad;
+
+    /**
+     * @param capacity number of posts kept
+     */
+    public TrendingLeaderboard(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Starts recording writes, so that {@link #load} can replay those made after the database was
+     * read. Call it before running the query.
+     */
+    public synchronized void beginLoad() {
+        changesDuringLoad = new HashMap<>();
+    }
+
+    /**
+     * Replaces the contents with the top posts read from the database.
+     *
+     * @param top the first {@code capacity + 1} non-expired posts in trending order, or all of them
+     *            if there are fewer; the extra one becomes the bound
+     */
+    public synchronized void load(List<Entry> top) {
+        ranked.clear();
+        entries.clear();
+        for (Entry entry : top.subList(0, Math.min(top.size(), capacity))) {
+            ranked.add(entry);
+            entries.put(entry.postId(), entry);
+        }
+        bound = top.size() > capacity ? top.get(capacity) : null;
+        Map<String, Entry> changes = changesDuringLoad;
+        changesDuringLoad = null;
+        if (changes != null) {
+            changes.forEach((postId, entry) -> {
+                if (entry != null) {
+                    update(entry);
+                } else {
+                    remove(postId);
+                }
+            });
+        }
+        loaded = true;
+    }
+
+    /**
+     * Places a post by its new score, created time or expiry. A post that was not on the board
+     * joins it only if it ranks ahead of the last entry or the board has room.
+     */
+    public synchronized void update(Entry entry) {
+        if (changesDuringLoad != null) {
+            changesDuringLoad.put(entry.postId(), entry);
+        }
+        Entry previous = entries.remove(entry.postId());
+        if (previous != null) {
+            ranked.remove(previous);
+        } else if (ranked.size() >= capacity && (capacity == 0 || ORDER.compare(entry, ranked.last()) > 0)) {
+            raiseBound(entry);
+            return;
+        }
+        ranked.add(entry);
+        entries.put(entry.postId(), entry);
+        while (ranked.size() > capacity) {
+            Entry evicted = ranked.pollLast();
+            entries.remove(evicted.postId());
+            raiseBound(evicted);
+        }
+    }
+
+    public synchronized void remove(String postId) {
+        if (changesDuringLoad != null) {
+            changesDuringLoad.put(postId, null);
+        }
+        Entry previous = entries.remove(postId);
+        if (previous != null) {
+            ranked.remove(previous);
+        }
+    }
+
+    private void raiseBound(Entry outside) {
+        if (bound == null || ORDER.compare(outside, bound) < 0) {
+            bound = outside;
+        }
+    }
+
+    /**
+     * @return the entry of a post on the board, or null
+     */
+    public Entry get(String postId) {
+        return entries.get(postId);
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public int size() {
+        return ranked.size();
+    }
+
+    /**
+     * The ids of the non-expired posts at positions {@code [offset, offset + limit)} of the trending
+     * order.
+     *
+     * @return the ids, fewer than {@code limit} only when the order ends, or null if the board
+     * cannot answer exactly because it was never loaded or the page reaches past its bound
+     */
+    public List<String> page(int offset, int limit, LocalDateTime now) {
+        if (!loaded) {
+            return null;
+        }
+        Entry outside = bound;
+        List<String> ids = new ArrayList<>(limit);
+        int position = 0;
+        for (Entry entry : ranked) {
+            if (ids.size() == limit) {
+                return ids;
+            }
+            if (outside != null && ORDER.compare(entry, outside) >= 0) {
+                return null;
+            }
+            if (!entry.isLiveAt(now)) {
+                continue;
+            }
+            if (position++ >= offset) {
+                ids.add(entry.postId());
+            }
+        }
+        return ids.size() == limit || outside == null ? ids : null;
+    }
+}
@@ -0,0 +1,10 @@
+-- Ranked recommendations per user and batch model version
+CREATE TABLE IF NOT EXISTS precomputed_recommendations (
+    user_id       BIGINT    NOT NULL,
+    model_version BIGINT    NOT NULL,
+    post_ids      TEXT[]    NOT NULL,
+    scores        REAL[]    NOT NULL,
+    computed_at   TIMESTAMP NOT NULL,
+    PRIMARY KEY (model_version, user_id)
+);
+CREATE INDEX IF NOT EXISTS idx_precomputed_recommendation_user ON precomputed_recommendations(user_id, model_version);
@@ -0,0 +1,7 @@
+-- Stored top-N similar users per user, rewritten whenever the list changes
+CREATE TABLE IF NOT EXISTS user_neighbours (
+    user_id       BIGINT    NOT NULL PRIMARY KEY,
+    neighbour_ids BIGINT[]  NOT NULL,
+    similarities  REAL[]    NOT NULL,
+    computed_at   TIMESTAMP NOT NULL
+);
@@ -0,0 +1,2 @@
+-- Time of each user's latest reaction or comment, compared with precomputed recommendation versions
+ALTER TABLE users ADD COLUMN IF NOT EXISTS interactions_changed_at TIMESTAMP;
@@ -0,0 +1,212 @@
+package com.dawillygene.ConfideHubs.service;
+
+import com.dawillygene.ConfideHubs.model.Post;
+import com.dawillygene.ConfideHubs.model.Reaction;
+import com.dawillygene.ConfideHubs.model.User;
+import com.dawillygene.ConfideHubs.repository.PostRepository;
+import com.dawillygene.ConfideHubs.repository.ReactionRepository;
+import com.dawillygene.ConfideHubs.repository.UserRepository;
+import com.dawillygene.ConfideHubs.service.recommendation.RecommendationMode;
+import com.dawillygene.ConfideHubs.service.recommendation.RecommendationModel;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Offline evaluation of every recommendation mode on synthetic data in an embedded H2 database.
+ * About 20% of the reactions of each user with at least five are held out. The rest are loaded
+ * through the repositories, and every mode is asked for the top {@code k} of each evaluated user.
+ * For each mode it reports p50/p99 latency of {@code getRecommendedPosts}, including hydration,
+ * heap in use after the mode's model was built, and precision@k / recall@k against the held-out
+ * reactions.
+ * <p>
+ * Run with {@code -Dbenchmark=true}; sizes can be changed with {@code -Deval.users},
+ * {@code -Deval.posts}, {@code -Deval.activity}, {@code -Deval.k} and {@code -Deval.seed}.
+ */
+@SpringBootTest
+@ActiveProfiles("benchmark")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class RecommendationEvaluationTest {
+
+    private static final int MAX_EVALUATED_USERS = 1_000;
+
+    @Autowired
+    private RecommendationService recommendationService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private ReactionRepository reactionRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Test
+    void evaluateRecommendationModes() {
+        int userCount = Integer.getInteger("eval.users", 2_000);
+        int postCount = Integer.getInteger("eval.posts", 5_000);
+        double activity = Double.parseDouble(System.getProperty("eval.activity", "20"));
+        int k = Integer.getInteger("eval.k", 10);
+        long seed = Long.getLong("eval.seed", 42L);
+
+        SyntheticDataset data = new SyntheticDataset(seed, userCount, postCount, 300, activity, 0.8);
+        Map<Long, Set<String>> heldOut = new HashMap<>();
+        long loadStart = System.nanoTime();
+        int trainingReactions = load(data, new Random(seed + 1), heldOut);
+        System.out.printf("Loaded %d users, %d posts, %d training reactions (%d held out for %d users) in %d ms%n",
+                userCount, postCount, trainingReactions, data.reactions.size() - trainingReactions,
+                heldOut.size(), (System.nanoTime() - loadStart) / 1_000_000);
+
+        recommendationService.rebuildRecommendationState();
+        recommendationService.refreshColdStartLists();
+        recommendationService.refreshUserNeighbourhoods();
+        List<Long> evaluated = new ArrayList<>(heldOut.keySet());
+        Collections.sort(evaluated);
+        Collections.shuffle(evaluated, new Random(seed + 2));
+        evaluated = evaluated.subList(0, Math.min(MAX_EVALUATED_USERS, evaluated.size()));
+
+        System.out.printf("%-12s %8s %8s %10s %8s %8s %10s%n",
+                "mode", "p50 ms", "p99 ms", "heap MB", "P@" + k, "R@" + k, "build ms");
+        Result popularity = evaluate(evaluated, heldOut, k, 0, userId -> {
+            RecommendationModel model = recommendationService.currentModel();
+            return recommendationService.hydrate(model, model.rankColdStart(userId, Set.of(), k).indexes());
+        });
+        print("popularity", popularity);
+
+        Map<RecommendationMode, Runnable> builds = new HashMap<>();
+        builds.put(RecommendationMode.ITEM_BASED, recommendationService::refreshItemSimilarityModel);
+        builds.put(RecommendationMode.APPROXIMATE, recommendationService::refreshNeighbourIndex);
+        builds.put(RecommendationMode.ALS, recommendationService::refreshAlsModel);
+        Map<RecommendationMode, Result> results = new HashMap<>();
+        for (RecommendationMode mode : RecommendationMode.values()) {
+            long buildStart = System.nanoTime();
+            builds.getOrDefault(mode, () -> { }).run();
+            long buildMillis = (System.nanoTime() - buildStart) / 1_000_000;
+            Result result = evaluate(evaluated, heldOut, k, buildMillis,
+                    userId -> recommendationService.getRecommendedPosts(userId, k, mode));
+            results.put(mode, result);
+            print(mode.name().toLowerCase(), result);
+        }
+        assertTrue(results.get(RecommendationMode.HYBRID).precision() > 0);
+    }
+
+    private record Result(double p50Millis, double p99Millis, double heapMb, double precision, double recall,
+                          long buildMillis) {
+    }
+
+    private Result evaluate(List<Long> users, Map<Long, Set<String>> heldOut, int k, long buildMillis,
+                            Function<Long, List<Post>> recommend) {
+        cacheManager.getCache("recommendations").clear();
+        double heapMb = usedHeapAfterGc() / 1024.0 / 1024.0;
+        long[] nanos = new long[users.size()];
+        double precision = 0;
+        double recall = 0;
+        for (int i = 0; i < users.size(); i++) {
+            Long userId = users.get(i);
+            long start = System.nanoTime();
+            List<Post> recommended = recommend.apply(userId);
+            nanos[i] = System.nanoTime() - start;
+
+            Set<String> relevant = heldOut.get(userId);
+            long hits = recommended.stream().limit(k).filter(post -> relevant.contains(post.getId())).count();
+            precision += (double) hits / k;
+            recall += (double) hits / relevant.size();
+        }
+        Arrays.sort(nanos);
+        return new Result(percentile(nanos, 0.50), percentile(nanos, 0.99), heapMb,
+                precision / users.size(), recall / users.size(), buildMillis);
+    }
+
+    private static void print(String name, Result result) {
+        System.out.printf("%-12s %8.2f %8.2f %10.1f %8.4f %8.4f %10d%n", name, result.p50Millis(),
+                result.p99Millis(), result.heapMb(), result.precision(), result.recall(), result.buildMillis());
+    }
+
+    private static double percentile(long[] sortedNanos, double quantile) {
+        int index = (int) Math.ceil(quantile * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(0, Math.min(sortedNanos.length - 1, index))] / 1e6;
+    }
+
+    private static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Saves users, posts and the training reactions; fills {@code heldOut} with the post ids held
+     * out per user.
+     *
+     * @return number of training reactions saved
+     */
+    private int load(SyntheticDataset data, Random random, Map<Long, Set<String>> heldOut) {
+        List<User> users = new ArrayList<>();
+        for (SyntheticDataset.UserSpec spec : data.users) {
+            User user = new User("user" + spec.id(), "user" + spec.id() + "@example.com", "not-a-real-password");
+            user.setInterests(new HashSet<>(spec.interests()));
+            users.add(user);
+        }
+        users = userRepository.saveAll(users);
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Post> posts = new ArrayList<>();
+        for (SyntheticDataset.PostSpec spec : data.posts) {
+            Post post = new Post();
+            post.setId("post-" + spec.id());
+            post.setUserId(users.get(spec.id() % users.size()).getId());
+            post.setTitle("Synthetic post " + spec.id());
+            post.setContent("Synthetic content");
+            post.setCategories(new ArrayList<>(spec.categories()));
+            post.setHashtags(new ArrayList<>(spec.hashtags()));
+            post.setCreatedAt(now.minusHours(random.nextInt(24 * 30)));
+            posts.add(post);
+        }
+        posts = postRepository.saveAll(posts);
+
+        Map<Integer, List<SyntheticDataset.ReactionSpec>> byUser = new HashMap<>();
+        for (SyntheticDataset.ReactionSpec reaction : data.reactions) {
+            byUser.computeIfAbsent(reaction.user(), user -> new ArrayList<>()).add(reaction);
+        }
+        List<Reaction> training = new ArrayList<>();
+        for (int u = 0; u < data.users.size(); u++) {
+            List<SyntheticDataset.ReactionSpec> reactions = byUser.getOrDefault(u, List.of());
+            User user = users.get(u);
+            boolean split = reactions.size() >= 5;
+            for (SyntheticDataset.ReactionSpec spec : reactions) {
+                Post post = posts.get(spec.post());
+                if (split && random.nextDouble() < 0.2) {
+                    heldOut.computeIfAbsent(user.getId(), id -> new HashSet<>()).add(post.getId());
+                    continue;
+                }
+                Reaction reaction = new Reaction();
+                reaction.setUser(user);
+                reaction.setPost(post);
+                reaction.setReactionType(spec.type());
+                training.add(reaction);
+            }
+        }
+        reactionRepository.saveAll(training);
+        return training.size();
+    }
+}
@@ -0,0 +1,236 @@
+package com.dawillygene.ConfideHubs.service;
+
+import com.dawillygene.ConfideHubs.event.ReactionChangedEvent;
+import com.dawillygene.ConfideHubs.event.UserInterestsChangedEvent;
+import com.dawillygene.ConfideHubs.model.Post;
+import com.dawillygene.ConfideHubs.model.PrecomputedRecommendation;
+import com.dawillygene.ConfideHubs.model.Reaction;
+import com.dawillygene.ConfideHubs.model.User;
+import com.dawillygene.ConfideHubs.repository.CommentRepository;
+import com.dawillygene.ConfideHubs.repository.PostRepository;
+import com.dawillygene.ConfideHubs.repository.PrecomputedRecommendationRepository;
+import com.dawillygene.ConfideHubs.repository.ReactionRepository;
+import com.dawillygene.ConfideHubs.repository.UserNeighbourhoodRepository;
+import com.dawillygene.ConfideHubs.repository.UserRepository;
+import com.dawillygene.ConfideHubs.service.recommendation.RecommendationMode;
+import com.dawillygene.ConfideHubs.service.recommendation.UserNeighbourhoods;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RecommendationServiceTest {
+
+    private final PostRepository postRepository = mock(PostRepository.class);
+    private final ReactionRepository reactionRepository = mock(ReactionRepository.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final PrecomputedRecommendationRepository precomputedRepository =
+            mock(PrecomputedRecommendationRepository.class);
+    private final CommentRepository commentRepository = mock(CommentRepository.class);
+    private RecommendationService service;
+
+    @BeforeEach
+    void setUp() {
+        Map<String, Post> posts = List.of(post("p1", "grief"), post("p2", "grief"), post("p3", "grief"),
+                        post("p4", "career"))
+                .stream().collect(Collectors.toMap(Post::getId, Function.identity()));
+        User first = user(1L);
+        User second = user(2L);
+        when(postRepository.findAll()).thenReturn(new ArrayList<>(posts.values()));
+        when(postRepository.findAllById(any())).thenAnswer(invocation -> {
+            List<Post> found = new ArrayList<>();
+            for (Object id : invocation.<Collection<?>>getArgument(0)) {
+                found.add(posts.get(id));
+            }
+            return found;
+        });
+        when(reactionRepository.findAll()).thenReturn(List.of(
+                reaction(first, posts.get("p1")),
+                reaction(second, posts.get("p1")),
+                reaction(second, posts.get("p2")),
+                reaction(second, posts.get("p3"))));
+        when(postRepository.findAllPostCategoryPairs()).thenReturn(List.of(new Object[]{"p1", "grief"},
+                new Object[]{"p2", "grief"}, new Object[]{"p3", "grief"}, new Object[]{"p4", "career"}));
+        when(commentRepository.findAllUserPostTimes()).thenReturn(List.of());
+        service = startService();
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdownModelBuilder();
+    }
+
+    private RecommendationService startService() {
+        RecommendationService started = new RecommendationService(postRepository, reactionRepository,
+                userRepository, commentRepository, mock(UserNeighbourhoodRepository.class), precomputedRepository,
+                new CaffeineCacheManager("posts", "recommendations", "recommendationFeeds", "userInterests"),
+                new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(started, "feedDepth", 10);
+        // Only users without any interaction are cold
+        ReflectionTestUtils.setField(started, "coldStartMinInteractions", 1);
+        ReflectionTestUtils.setField(started, "coldStartPerCategory", 10);
+        ReflectionTestUtils.setField(started, "userNeighbourCount", 10);
+        started.rebuildRecommendationState();
+        return started;
+    }
+
+    @Test
+    void servesTheFreshPrecomputedRowAndRanksLiveOnceItIsStale() {
+        long version = service.snapshotModel().version();
+        givenPrecomputed(1L, version, "p4", "p3", "p2");
+        assertEquals(List.of("p4", "p3"), ids(service.getRecommendedPosts(1L, 2, RecommendationMode.HYBRID)));
+        // Only the default mode is precomputed
+        assertEquals(Set.of("p2", "p3"), Set.copyOf(ids(service.getRecommendedPosts(1L, 2, RecommendationMode.ITEM_BASED))));
+
+        // The row predates the user's new reaction, so it is ranked live
+        service.onReactionChanged(new ReactionChangedEvent(1L, "p2", "like", 1, LocalDateTime.now()));
+        service.publishPendingChanges();
+        assertEquals(List.of("p3"), ids(service.getRecommendedPosts(1L, 1, RecommendationMode.HYBRID)));
+
+        long rerun = service.snapshotModel().version();
+        givenPrecomputed(1L, rerun, "p4", "p3");
+        service.onPrecomputed(rerun, List.of(1L));
+        assertEquals(List.of("p4", "p3"), ids(service.getRecommendedPosts(1L, 2, RecommendationMode.HYBRID)));
+        // A row too short for the request falls back to a live ranking
+        assertEquals(2, service.getRecommendedPosts(1L, 3, RecommendationMode.HYBRID).size());
+    }
+
+    @Test
+    void rowsWrittenBeforeARestartAreServedUntilThePersistedInteractionTimePassesThem() throws Exception {
+        long version = service.snapshotModel().version();
+        givenPrecomputed(1L, version, "p4", "p3");
+        when(userRepository.findInteractionsChangedAt(1L)).thenReturn(Optional.of(
+                LocalDateTime.now().minusMinutes(5)));
+        service.shutdownModelBuilder();
+        Thread.sleep(5);
+        service = startService();
+        assertEquals(List.of("p4"), ids(service.getRecommendedPosts(1L, 1, RecommendationMode.HYBRID)));
+
+        // Another instance stored a reaction after the row was ranked
+        when(userRepository.findInteractionsChangedAt(1L)).thenReturn(Optional.of(LocalDateTime.now()));
+        assertEquals(Set.of("p2", "p3"), Set.copyOf(ids(service.getRecommendedPosts(1L, 2, RecommendationMode.HYBRID))));
+    }
+
+    @Test
+    void listsAreCachedWhicheverOverloadIsCalled() {
+        givenPrecomputed(1L, service.snapshotModel().version(), "p4", "p3");
+        assertEquals(List.of("p4", "p3"), ids(service.getRecommendedPosts(1L, 2)));
+        assertEquals(List.of("p4", "p3"), ids(service.getRecommendedPosts(1L, 2, RecommendationMode.HYBRID)));
+        verify(precomputedRepository, times(1)).findFirstByUserIdOrderByModelVersionDesc(1L);
+    }
+
+    @Test
+    void firstFeedPageComesFromThePrecomputedRowAndLaterPagesExtendIt() {
+        givenPrecomputed(1L, service.snapshotModel().version(), "p4", "p3");
+        var firstPage = service.getRecommendationFeed(1L, null, 1, RecommendationMode.HYBRID);
+        assertEquals(List.of("p4"), ids(firstPage.getPosts()));
+        var secondPage = service.getRecommendationFeed(1L, firstPage.getNextCursor(), 1, RecommendationMode.HYBRID);
+        assertEquals(List.of("p3"), ids(secondPage.getPosts()));
+        // Past the row: the live ranking fills in the posts the row did not list
+        var thirdPage = service.getRecommendationFeed(1L, secondPage.getNextCursor(), 1, RecommendationMode.HYBRID);
+        assertEquals(List.of("p2"), ids(thirdPage.getPosts()));
+    }
+
+    @Test
+    void scheduledRefreshesOnlyBuildTheModelsOfRequestedModes() {
+        service.scheduledItemSimilarityRefresh();
+        service.scheduledAlsRefresh();
+        assertNull(service.currentModel().itemModel());
+        assertNull(service.currentModel().alsModel());
+
+        service.currentModel(RecommendationMode.ITEM_BASED);
+        service.scheduledItemSimilarityRefresh();
+        service.scheduledAlsRefresh();
+        assertNotNull(service.currentModel().itemModel());
+        assertNull(service.currentModel().alsModel());
+    }
+
+    @Test
+    void neighbourhoodRefreshesPublishACopyInsteadOfChangingThePublishedLists() {
+        service.refreshUserNeighbourhoods();
+        UserNeighbourhoods published = service.currentModel().userNeighbourhoods();
+        UserNeighbourhoods.Neighbourhood before = published.get(1L);
+        assertNotNull(before);
+
+        service.onReactionChanged(new ReactionChangedEvent(1L, "p2", "like", 1, LocalDateTime.now()));
+        service.refreshUserNeighbourhoods();
+        assertSame(before, published.get(1L));
+        UserNeighbourhoods refreshed = service.currentModel().userNeighbourhoods();
+        assertNotSame(published, refreshed);
+        assertNotEquals(before.similarities()[0], refreshed.get(1L).similarities()[0]);
+    }
+
+    @Test
+    void coldStartInterestsAreReadOnceAndReplacedOnProfileChanges() {
+        service.refreshColdStartLists();
+        User newcomer = user(3L);
+        newcomer.setInterests(Set.of("career"));
+        when(userRepository.findById(3L)).thenReturn(Optional.of(newcomer));
+
+        assertEquals("p4", service.getRecommendedPosts(3L, 1, RecommendationMode.HYBRID).get(0).getId());
+        assertEquals("p4", service.getRecommendedPosts(3L, 2, RecommendationMode.HYBRID).get(0).getId());
+        verify(userRepository, times(1)).findById(3L);
+
+        service.onUserInterestsChanged(new UserInterestsChangedEvent(3L, Set.of("grief")));
+        // p1 has the most reactions in the new interest
+        assertEquals("p1", service.getRecommendedPosts(3L, 1, RecommendationMode.HYBRID).get(0).getId());
+        verify(userRepository, times(1)).findById(3L);
+    }
+
+    private void givenPrecomputed(Long userId, long version, String... postIds) {
+        when(precomputedRepository.findFirstByUserIdOrderByModelVersionDesc(userId)).thenReturn(Optional.of(
+                new PrecomputedRecommendation(userId, version, postIds, new float[postIds.length])));
+    }
+
+    private static List<String> ids(List<Post> posts) {
+        return posts.stream().map(Post::getId).toList();
+    }
+
+    private static Post post(String id, String category) {
+        Post post = new Post();
+        post.setId(id);
+        post.setCategories(List.of(category));
+        post.setHashtags(List.of());
+        post.setCreatedAt(LocalDateTime.now());
+        return post;
+    }
+
+    private static User user(Long id) {
+        User user = new User("user" + id, "user" + id + "@example.com", "not-a-real-password");
+        user.setId(id);
+        return user;
+    }
+
+    private static Reaction reaction(User user, Post post) {
+        Reaction reaction = new Reaction();
+        reaction.setUser(user);
+        reaction.setPost(post);
+        reaction.setReactionType("like");
+        reaction.setCreatedAt(LocalDateTime.now());
+        return reaction;
+    }
+}
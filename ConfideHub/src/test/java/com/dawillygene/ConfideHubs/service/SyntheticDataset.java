@@ -0,0 +1,138 @@
+package com.dawillygene.ConfideHubs.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Reproducible synthetic users, posts and reactions for evaluating the recommender offline.
+ * <p>
+ * Every user has one to three interest categories. Post popularity follows a Zipf law, both
+ * overall and within each category. User activity follows a Pareto law, so a few users react a
+ * lot and most react a little. Most reactions fall on posts in the user's interests. The same
+ * seed always gives the same data.
+ */
+final class SyntheticDataset {
+
+    static final String[] CATEGORIES = {
+            "anxiety", "depression", "relationships", "family", "work", "school",
+            "health", "loneliness", "grief", "self-esteem", "addiction", "faith"};
+    private static final String[] REACTION_TYPES = {"like", "like", "like", "support", "support", "bookmark"};
+
+    record PostSpec(int id, List<String> categories, List<String> hashtags) {
+    }
+
+    record UserSpec(int id, Set<String> interests) {
+    }
+
+    record ReactionSpec(int user, int post, String type) {
+    }
+
+    final List<UserSpec> users = new ArrayList<>();
+    final List<PostSpec> posts = new ArrayList<>();
+    final List<ReactionSpec> reactions = new ArrayList<>();
+
+    /**
+     * @param meanActivity average number of posts a user reacts to
+     * @param inInterest   share of reactions on posts from the user's interests
+     */
+    SyntheticDataset(long seed, int userCount, int postCount, int hashtagCount, double meanActivity,
+                     double inInterest) {
+        Random random = new Random(seed);
+        ZipfSampler hashtagSampler = new ZipfSampler(hashtagCount, 1.1);
+
+        List<List<Integer>> postsByCategory = new ArrayList<>();
+        for (int c = 0; c < CATEGORIES.length; c++) {
+            postsByCategory.add(new ArrayList<>());
+        }
+        for (int p = 0; p < postCount; p++) {
+            int primary = random.nextInt(CATEGORIES.length);
+            List<String> categories = new ArrayList<>(List.of(CATEGORIES[primary]));
+            postsByCategory.get(primary).add(p);
+            if (random.nextDouble() < 0.3) {
+                int secondary = random.nextInt(CATEGORIES.length);
+                if (secondary != primary) {
+                    categories.add(CATEGORIES[secondary]);
+                    postsByCategory.get(secondary).add(p);
+                }
+            }
+            Set<String> hashtags = new LinkedHashSet<>();
+            int tags = 1 + random.nextInt(3);
+            for (int t = 0; t < tags; t++) {
+                hashtags.add("tag" + hashtagSampler.sample(random));
+            }
+            posts.add(new PostSpec(p, categories, new ArrayList<>(hashtags)));
+        }
+
+        ZipfSampler globalPopularity = new ZipfSampler(postCount, 1.0);
+        ZipfSampler[] categoryPopularity = new ZipfSampler[CATEGORIES.length];
+        for (int c = 0; c < CATEGORIES.length; c++) {
+            categoryPopularity[c] = new ZipfSampler(Math.max(1, postsByCategory.get(c).size()), 1.0);
+        }
+
+        // Pareto with shape 1.5 has mean 3 × minimum
+        double paretoMinimum = meanActivity / 3;
+        for (int u = 0; u < userCount; u++) {
+            int interestCount = 1 + random.nextInt(3);
+            List<Integer> interestIndexes = new ArrayList<>();
+            Set<String> interests = new HashSet<>();
+            while (interestIndexes.size() < interestCount) {
+                int c = random.nextInt(CATEGORIES.length);
+                if (interests.add(CATEGORIES[c])) {
+                    interestIndexes.add(c);
+                }
+            }
+            users.add(new UserSpec(u, interests));
+
+            int activity = (int) Math.min(postCount / 4.0,
+                    Math.ceil(paretoMinimum / Math.pow(1 - random.nextDouble(), 1 / 1.5)));
+            Set<Integer> reacted = new HashSet<>();
+            for (int attempt = 0; reacted.size() < activity && attempt < activity * 5; attempt++) {
+                int post;
+                if (random.nextDouble() < inInterest) {
+                    int c = interestIndexes.get(random.nextInt(interestIndexes.size()));
+                    List<Integer> candidates = postsByCategory.get(c);
+                    if (candidates.isEmpty()) {
+                        continue;
+                    }
+                    post = candidates.get(categoryPopularity[c].sample(random));
+                } else {
+                    post = globalPopularity.sample(random);
+                }
+                if (reacted.add(post)) {
+                    reactions.add(new ReactionSpec(u, post, REACTION_TYPES[random.nextInt(REACTION_TYPES.length)]));
+                }
+            }
+        }
+    }
+
+    /**
+     * Inverse-CDF sampling of ranks {@code 0 .. n-1} with probability proportional to
+     * {@code 1 / (rank + 1)^exponent}.
+     */
+    private static final class ZipfSampler {
+
+        private final double[] cumulative;
+
+        ZipfSampler(int n, double exponent) {
+            cumulative = new double[n];
+            double total = 0;
+            for (int rank = 0; rank < n; rank++) {
+                total += 1 / Math.pow(rank + 1, exponent);
+                cumulative[rank] = total;
+            }
+            for (int rank = 0; rank < n; rank++) {
+                cumulative[rank] /= total;
+            }
+        }
+
+        int sample(Random random) {
+            int position = Arrays.binarySearch(cumulative, random.nextDouble());
+            return Math.min(cumulative.length - 1, position >= 0 ? position : -position - 1);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.dawillygene.ConfideHubs.service.recommendation;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AlsModelTest {
+
+    @Test
+    void usersPreferUnseenPostsOfTheirOwnCluster() {
+        InteractionMatrix.Builder builder = InteractionMatrix.builder();
+        for (long user = 0; user < 40; user++) {
+            String cluster = user < 20 ? "a" : "b";
+            for (int post = 0; post < 10; post++) {
+                // Leave a gap in every user's history so there is something to predict
+                if (post != user % 10) {
+                    builder.add(user, cluster + post, 1);
+                }
+            }
+        }
+        InteractionMatrix matrix = builder.build();
+        AlsModel model = AlsModel.train(matrix, 4, 10, 0.1, 10);
+
+        float[] user = model.userVector(matrix.rowOf(3L));
+        double unseenOwnCluster = model.score(user, matrix.postIndex("a3"));
+        for (int post = 0; post < 10; post++) {
+            assertTrue(unseenOwnCluster > model.score(user, matrix.postIndex("b" + post)));
+        }
+        assertEquals(0.0, model.score(user, model.postCount()));
+    }
+
+    /**
+     * Training time, embedding memory and serving latency at 1M reactions.
+     * Run with {@code -Dbenchmark=true}.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void trainAndServeAtOneMillionReactions() {
+        int users = 50_000;
+        int posts = 20_000;
+        int factors = 32;
+        int iterations = 10;
+        Random random = new Random(42);
+        IdDictionary<String> postDictionary = new IdDictionary<>(posts);
+        Map<String, Set<String>> postFeatures = new HashMap<>();
+        for (int post = 0; post < posts; post++) {
+            postFeatures.put("post-" + post, Set.of("community-" + post / 50));
+        }
+        InteractionMatrix.Builder builder = InteractionMatrix.builder(postDictionary);
+        for (long user = 0; user < users; user++) {
+            int community = random.nextInt(posts / 50);
+            for (int i = 0; i < 20; i++) {
+                int post = random.nextDouble() < 0.9 ? community * 50 + random.nextInt(50) : random.nextInt(posts);
+                builder.add(user, "post-" + post, 1 + random.nextInt(4));
+            }
+        }
+        InteractionMatrix matrix = builder.build();
+        // Every post needs features to be a ranking candidate; no user has keyword preferences
+        ContentIndex content = new ContentIndex(postDictionary, InteractionMatrix.builder(postDictionary).build(),
+                postFeatures);
+
+        long start = System.nanoTime();
+        AlsModel model = AlsModel.train(matrix, factors, iterations, 0.1, 10);
+        long trainMillis = (System.nanoTime() - start) / 1_000_000;
+
+        RecommendationModel alsModel = new RecommendationModel(RecommendationModel.LIVE_VERSION, matrix, content,
+                null, null, model, null, null, 1, 0);
+        RecommendationModel exactModel = new RecommendationModel(RecommendationModel.LIVE_VERSION, matrix, content,
+                null, null, null, null, null, 1, 0);
+        int queries = 500;
+        long alsNanos = 0;
+        long exactNanos = 0;
+        for (long user = 0; user < queries; user++) {
+            long queryStart = System.nanoTime();
+            alsModel.rank(user, 20, RecommendationMode.ALS);
+            alsNanos += System.nanoTime() - queryStart;
+            queryStart = System.nanoTime();
+            exactModel.rank(user, 20, RecommendationMode.HYBRID);
+            exactNanos += System.nanoTime() - queryStart;
+        }
+        System.out.printf("ALS %d factors x %d iterations on %d interactions: train=%d ms (%.0f ms/iteration), embeddings=%d KB%n",
+                factors, iterations, matrix.interactionCount(), trainMillis, (double) trainMillis / iterations,
+                model.estimatedHeapBytes() / 1024);
+        System.out.printf("serve: ALS %.2f ms/user, user-based CF %.2f ms/user%n",
+                alsNanos / 1e6 / queries, exactNanos / 1e6 / queries);
+    }
+}
@@ -0,0 +1,46 @@
+package com.dawillygene.ConfideHubs.service.recommendation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ColdStartListsTest {
+
+    @Test
+    void interestsComeFirstThenPopularity() {
+        InteractionMatrix matrix = InteractionMatrix.builder()
+                .add(1L, "anxiety-popular", 4).add(2L, "anxiety-popular", 4)
+                .add(1L, "anxiety-quiet", 1)
+                .add(1L, "sports-hit", 4).add(2L, "sports-hit", 4).add(3L, "sports-hit", 4)
+                .add(1L, "both", 1)
+                .build();
+        List<Object[]> categories = List.of(
+                new Object[]{"anxiety-popular", "Anxiety"},
+                new Object[]{"anxiety-quiet", "anxiety"},
+                new Object[]{"sports-hit", "Sports"},
+                new Object[]{"both", "Anxiety"},
+                new Object[]{"both", "Relationships"});
+        ColdStartLists lists = ColdStartLists.build(matrix, categories, 10, 3);
+
+        TopK ranked = lists.rank(Set.of(" ANXIETY ", "relationships"), 5, postIndex -> true);
+        assertArrayEquals(new int[]{
+                matrix.postIndex("both"),
+                matrix.postIndex("anxiety-popular"),
+                matrix.postIndex("anxiety-quiet"),
+                matrix.postIndex("sports-hit")}, ranked.indexes());
+
+        int excluded = matrix.postIndex("both");
+        TopK filtered = lists.rank(Set.of("anxiety"), 5, postIndex -> postIndex != excluded);
+        for (int postIndex : filtered.indexes()) {
+            assertTrue(postIndex != excluded);
+        }
+
+        assertTrue(lists.isCold(matrix.rowOf(2L)));
+        assertFalse(lists.isCold(matrix.rowOf(1L)));
+    }
+}
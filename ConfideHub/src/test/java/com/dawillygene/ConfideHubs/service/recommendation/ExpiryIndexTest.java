@@ -0,0 +1,47 @@
+package com.dawillygene.ConfideHubs.service.recommendation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ExpiryIndexTest {
+
+    @Test
+    void pollsOnlyDuePostsWithTheirCurrentExpiry() {
+        ExpiryIndex index = new ExpiryIndex();
+        index.schedule("a", 100);
+        index.schedule("b", 200);
+        index.schedule("c", 300);
+        index.schedule("b", 400); // Edited: the entry for 200 is stale
+        index.schedule("d", 150);
+        index.cancel("d");        // Deleted
+
+        assertEquals(List.of(), index.pollExpired(99));
+        assertEquals(List.of("a"), index.pollExpired(250));
+        assertEquals(List.of("c"), index.pollExpired(300));
+        assertEquals(1, index.size());
+        assertEquals(List.of("b"), index.pollExpired(1_000));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void expiredPostsAreNotRanked() {
+        IdDictionary<String> posts = new IdDictionary<>();
+        InteractionMatrix matrix = InteractionMatrix.builder(posts)
+                .add(1L, "seen", 1).add(2L, "seen", 1).add(2L, "expired", 1).add(2L, "live", 1)
+                .build();
+        Map<String, Set<String>> features = Map.of("seen", Set.of("x"), "expired", Set.of("x"), "live", Set.of("x"));
+        ContentIndex content = new ContentIndex(posts, InteractionMatrix.builder(posts).build(), features,
+                Map.of("expired", System.currentTimeMillis() - 1));
+        RecommendationModel model = new RecommendationModel(RecommendationModel.LIVE_VERSION, matrix, content,
+                null, null, null, null, null, 1, 0);
+
+        int[] ranked = model.rank(1L, 10, RecommendationMode.HYBRID).indexes();
+        assertEquals(List.of("live"), Arrays.stream(ranked).mapToObj(model::postId).toList());
+    }
+}
@@ -0,0 +1,192 @@
+package com.dawillygene.ConfideHubs.service.recommendation;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InteractionMatrixTest {
+
+    private static final int[] WEIGHTS = {1, 2, 3, 4};
+
+    @Test
+    void cosineSimilarityMatchesMapImplementation() {
+        Map<Long, Map<String, Integer>> boxed = new HashMap<>();
+        InteractionMatrix matrix = randomMatrix(200, 500, 5_000, new Random(7), boxed);
+
+        assertEquals(boxed.size(), matrix.userCount());
+        for (Long user1 : boxed.keySet()) {
+            for (Long user2 : boxed.keySet()) {
+                double expected = referenceCosine(boxed.get(user1), boxed.get(user2));
+                double actual = matrix.cosineSimilarity(matrix.userIndex(user1), matrix.userIndex(user2));
+                assertEquals(expected, actual, 1e-12);
+            }
+        }
+    }
+
+    @Test
+    void repeatedReactionsAreSummed() {
+        InteractionMatrix matrix = InteractionMatrix.builder()
+                .add(1L, "b", 1)
+                .add(1L, "a", 2)
+                .add(1L, "b", 4)
+                .add(2L, "a", 3)
+                .build();
+
+        SparseRow row = matrix.rowOf(1L);
+        assertEquals(2, row.size());
+        assertEquals(5f, row.get(matrix.postIndex("b")));
+        assertEquals(2f, row.get(matrix.postIndex("a")));
+        assertEquals(3, matrix.interactionCount());
+        assertEquals(SparseRow.EMPTY, matrix.rowOf(99L));
+    }
+
+    @Test
+    void columnsMirrorRowsAfterUpdates() {
+        Random random = new Random(11);
+        InteractionMatrix matrix = randomMatrix(100, 300, 2_000, random, new HashMap<>());
+        for (int i = 0; i < 5_000; i++) {
+            int delta = random.nextBoolean() ? 1 + random.nextInt(4) : -(1 + random.nextInt(4));
+            matrix.add((long) random.nextInt(120), "post-" + random.nextInt(320), delta);
+        }
+        matrix.removePost("post-5");
+
+        long cells = 0;
+        for (int u = 0; u < matrix.userCount(); u++) {
+            SparseRow row = matrix.row(u);
+            cells += row.size();
+            for (int i = 0; i < row.size(); i++) {
+                assertEquals(row.valueAt(i), matrix.column(row.indexAt(i)).get(u));
+            }
+        }
+        long columnCells = 0;
+        for (int p = 0; p < matrix.postCount(); p++) {
+            columnCells += matrix.column(p).size();
+        }
+        assertEquals(matrix.interactionCount(), cells);
+        assertEquals(cells, columnCells);
+        assertTrue(matrix.column(matrix.postIndex("post-5")).isEmpty());
+    }
+
+    @Test
+    void decayedWeightsArePrunedAndSurviveARebase() {
+        long day = 24L * 60 * 60 * 1000;
+        long now = 1_000 * day;
+        TimeDecay decay = new TimeDecay(10 * day, now);
+        InteractionMatrix matrix = InteractionMatrix.builder()
+                .decay(decay)
+                .add(1L, "fresh", 4, now)
+                .add(1L, "month-old", 4, now - 30 * day)
+                .add(2L, "ancient", 4, now - 100 * day)
+                .build();
+
+        SparseRow row = matrix.rowOf(1L);
+        assertEquals(4.0, row.get(matrix.postIndex("fresh")) * matrix.weightScale(now), 1e-5);
+        assertEquals(0.5, row.get(matrix.postIndex("month-old")) * matrix.weightScale(now), 1e-5);
+        assertEquals(0.25, row.get(matrix.postIndex("fresh")) * matrix.weightScale(now + 40 * day), 1e-5);
+
+        // Removing a reaction with its original time cancels it exactly
+        matrix.add(1L, "month-old", -4, now - 30 * day);
+        assertEquals(1, matrix.rowOf(1L).size());
+        matrix.add(1L, "month-old", 4, now - 30 * day);
+
+        assertEquals(1, matrix.prune(0.01, now));
+        assertTrue(matrix.rowOf(2L).isEmpty());
+        assertTrue(matrix.column(matrix.postIndex("ancient")).isEmpty());
+        assertEquals(2, matrix.interactionCount());
+
+        // Far enough ahead the epoch moves; decayed weights are unchanged
+        long later = now + 250 * day;
+        double before = matrix.rowOf(1L).get(matrix.postIndex("fresh")) * matrix.weightScale(later);
+        matrix.prune(0, later);
+        assertEquals(later, matrix.decay().epochMillis());
+        assertEquals(before, matrix.rowOf(1L).get(matrix.postIndex("fresh")) * matrix.weightScale(later), 1e-12);
+    }
+
+    /**
+     * Heap comparison against the boxed map representation. Run with {@code -Dbenchmark=true}.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void compactMatrixUsesLessHeapThanBoxedMaps() {
+        int users = 50_000;
+        int posts = 20_000;
+        int reactions = 1_000_000;
+        String[] postIds = new String[posts];
+        for (int i = 0; i < posts; i++) {
+            postIds[i] = UUID.randomUUID().toString();
+        }
+
+        long before = usedHeap();
+        Map<Long, Map<String, Integer>> boxed = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < reactions; i++) {
+            Long user = (long) random.nextInt(users);
+            String post = postIds[random.nextInt(posts)];
+            boxed.computeIfAbsent(user, k -> new HashMap<>()).merge(post, WEIGHTS[random.nextInt(4)], Integer::sum);
+        }
+        long boxedBytes = usedHeap() - before;
+
+        before = usedHeap();
+        InteractionMatrix matrix = compact(boxed);
+        long compactBytes = usedHeap() - before;
+
+        System.out.printf("interactions=%d boxed measured=%d KB estimated=%d KB | compact measured=%d KB estimated=%d KB%n",
+                matrix.interactionCount(),
+                boxedBytes / 1024, InteractionMatrix.estimateBoxedMapHeapBytes(boxed) / 1024,
+                compactBytes / 1024, matrix.estimatedHeapBytes() / 1024);
+        assertTrue(compactBytes * 2 < boxedBytes);
+        assertTrue(matrix.estimatedHeapBytes() * 2 < InteractionMatrix.estimateBoxedMapHeapBytes(boxed));
+    }
+
+    private static InteractionMatrix compact(Map<Long, Map<String, Integer>> boxed) {
+        InteractionMatrix.Builder builder = InteractionMatrix.builder();
+        boxed.forEach((user, row) -> row.forEach((post, weight) -> builder.add(user, post, weight)));
+        return builder.build();
+    }
+
+    private static InteractionMatrix randomMatrix(int users, int posts, int reactions, Random random,
+                                                  Map<Long, Map<String, Integer>> boxed) {
+        InteractionMatrix.Builder builder = InteractionMatrix.builder();
+        for (int i = 0; i < reactions; i++) {
+            Long user = (long) random.nextInt(users);
+            String post = "post-" + random.nextInt(posts);
+            int weight = WEIGHTS[random.nextInt(4)];
+            builder.add(user, post, weight);
+            boxed.computeIfAbsent(user, k -> new HashMap<>()).merge(post, weight, Integer::sum);
+        }
+        return builder.build();
+    }
+
+    private static double referenceCosine(Map<String, Integer> a, Map<String, Integer> b) {
+        Set<String> all = new HashSet<>(a.keySet());
+        all.addAll(b.keySet());
+        double dot = 0;
+        double m1 = 0;
+        double m2 = 0;
+        for (String post : all) {
+            int r1 = a.getOrDefault(post, 0);
+            int r2 = b.getOrDefault(post, 0);
+            dot += r1 * r2;
+            m1 += Math.pow(r1, 2);
+            m2 += Math.pow(r2, 2);
+        }
+        return m1 == 0 || m2 == 0 ? 0 : dot / (Math.sqrt(m1) * Math.sqrt(m2));
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,61 @@
+package com.dawillygene.ConfideHubs.service.recommendation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class KeywordVectorTest {
+
+    @Test
+    void similarityMatchesSetImplementationExactly() {
+        Random random = new Random(3);
+        IdDictionary<String> dictionary = new IdDictionary<>();
+        for (int i = 0; i < 5_000; i++) {
+            Set<String> a = randomKeywords(random);
+            Set<String> b = randomKeywords(random);
+            KeywordVector va = KeywordVector.of(a, dictionary);
+            KeywordVector vb = KeywordVector.of(b, dictionary);
+
+            assertEquals(setSimilarity(a, b), va.similarity(vb));
+            assertEquals(setSimilarity(b, a), vb.similarity(va));
+            assertEquals(a, va.toSet(dictionary));
+        }
+    }
+
+    @Test
+    void unionContainsEveryKeyword() {
+        IdDictionary<String> dictionary = new IdDictionary<>();
+        KeywordVector union = new KeywordVector.Union()
+                .add(KeywordVector.of(List.of("anxiety", "work"), dictionary))
+                .add(KeywordVector.of(List.of("work", "family"), dictionary))
+                .add(KeywordVector.EMPTY)
+                .build();
+
+        assertEquals(Set.of("anxiety", "work", "family"), union.toSet(dictionary));
+        assertEquals(3, union.size());
+    }
+
+    private static Set<String> randomKeywords(Random random) {
+        Set<String> keywords = new HashSet<>();
+        int size = random.nextInt(12);
+        for (int i = 0; i < size; i++) {
+            keywords.add("k" + random.nextInt(300));
+        }
+        return keywords;
+    }
+
+    // The set-based formula KeywordVector replaces
+    private static double setSimilarity(Set<String> userKeywords, Set<String> postKeywords) {
+        if (userKeywords.isEmpty() || postKeywords.isEmpty()) {
+            return 0.0;
+        }
+        Set<String> intersection = new HashSet<>(userKeywords);
+        intersection.retainAll(postKeywords);
+        return (double) intersection.size() / Math.sqrt(userKeywords.size() * postKeywords.size());
+    }
+}
@@ -0,0 +1,139 @@
+package com.dawillygene.ConfideHubs.service.recommendation;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MinHashIndexTest {
+
+    @Test
+    void usersWithTheSameHistoryShareEveryBand() {
+        InteractionMatrix matrix = InteractionMatrix.builder()
+                .add(1L, "a", 1).add(1L, "b", 2).add(1L, "c", 1)
+                .add(2L, "a", 4).add(2L, "b", 1).add(2L, "c", 3)
+                .add(3L, "x", 1).add(3L, "y", 1)
+                .build();
+        MinHashIndex index = MinHashIndex.build(matrix, 8, 2);
+
+        int user1 = matrix.userIndex(1L);
+        IntDoubleMap candidates = index.candidates(matrix.row(user1), user1);
+        assertEquals(8.0, candidates.get(matrix.userIndex(2L)));
+        assertEquals(0.0, candidates.get(matrix.userIndex(3L)));
+        assertEquals(0.0, candidates.get(user1));
+    }
+
+    @Test
+    void approximateScoresOnlyDropMissedNeighbours() {
+        InteractionMatrix matrix = communityMatrix(2_000, 1_000, 20, new Random(5));
+        RecommendationModel model = model(matrix, MinHashIndex.build(matrix, 20, 4));
+        for (long user = 0; user < 200; user++) {
+            IntDoubleMap exact = model.collaborativeScores(user);
+            IntDoubleMap approximate = model.approximateCollaborativeScores(user);
+            for (int i = 0; i < approximate.size(); i++) {
+                assertTrue(approximate.valueAt(i) <= exact.get(approximate.keyAt(i)) + 1e-9);
+            }
+        }
+    }
+
+    /**
+     * Recall, latency and memory of the approximate mode against exact user-based CF for several
+     * band/row settings. Run with {@code -Dbenchmark=true}.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void recallAgainstExactCollaborativeFiltering() {
+        int users = 50_000;
+        int queries = 500;
+        int k = 20;
+        InteractionMatrix matrix = communityMatrix(users, 20_000, 20, new Random(42));
+        int[][] settings = {{16, 1}, {32, 1}, {16, 2}, {32, 2}, {64, 2}, {20, 4}, {64, 3}};
+
+        RecommendationModel exactModel = model(matrix, null);
+        int[][] exactTop = new int[queries][];
+        long exactNanos = 0;
+        for (int q = 0; q < queries; q++) {
+            long start = System.nanoTime();
+            exactTop[q] = top(exactModel.collaborativeScores((long) q), k);
+            exactNanos += System.nanoTime() - start;
+        }
+        System.out.printf("exact CF: %.2f ms/query%n", exactNanos / 1e6 / queries);
+
+        double bestRecall = 0;
+        for (int[] setting : settings) {
+            long buildStart = System.nanoTime();
+            MinHashIndex index = MinHashIndex.build(matrix, setting[0], setting[1]);
+            long buildMillis = (System.nanoTime() - buildStart) / 1_000_000;
+            RecommendationModel approximateModel = model(matrix, index);
+
+            long nanos = 0;
+            long candidates = 0;
+            int hits = 0;
+            int expected = 0;
+            for (int q = 0; q < queries; q++) {
+                int userIndex = matrix.userIndex((long) q);
+                candidates += index.candidates(matrix.row(userIndex), userIndex).size();
+                long start = System.nanoTime();
+                int[] approximateTop = top(approximateModel.approximateCollaborativeScores((long) q), k);
+                nanos += System.nanoTime() - start;
+                hits += overlap(exactTop[q], approximateTop);
+                expected += exactTop[q].length;
+            }
+            double recall = (double) hits / expected;
+            bestRecall = Math.max(bestRecall, recall);
+            System.out.printf("bands=%2d rows=%d  recall@%d=%.3f  %.2f ms/query  %d candidates/query  index=%d KB  build=%d ms%n",
+                    setting[0], setting[1], k, recall, nanos / 1e6 / queries,
+                    candidates / queries, index.estimatedHeapBytes() / 1024, buildMillis);
+        }
+        assertTrue(bestRecall > 0.9);
+    }
+
+    private static RecommendationModel model(InteractionMatrix matrix, MinHashIndex index) {
+        return new RecommendationModel(RecommendationModel.LIVE_VERSION, matrix, ContentIndex.empty(), null, index, null,
+                null, null, 1, 0);
+    }
+
+    /**
+     * Users belong to one of many communities and take 90% of their interactions from that
+     * community's posts, so there is real neighbourhood structure for LSH to find.
+     */
+    private static InteractionMatrix communityMatrix(int users, int posts, int perUser, Random random) {
+        int communitySize = 50;
+        int communities = posts / communitySize;
+        InteractionMatrix.Builder builder = InteractionMatrix.builder();
+        for (long user = 0; user < users; user++) {
+            int community = random.nextInt(communities);
+            for (int i = 0; i < perUser; i++) {
+                int post = random.nextDouble() < 0.9
+                        ? community * communitySize + random.nextInt(communitySize)
+                        : random.nextInt(posts);
+                builder.add(user, "post-" + post, 1 + random.nextInt(4));
+            }
+        }
+        return builder.build();
+    }
+
+    private static int[] top(IntDoubleMap scores, int k) {
+        TopK top = new TopK(k);
+        for (int i = 0; i < scores.size(); i++) {
+            top.offer(scores.keyAt(i), scores.valueAt(i));
+        }
+        return top.indexes();
+    }
+
+    private static int overlap(int[] a, int[] b) {
+        int count = 0;
+        for (int x : a) {
+            for (int y : b) {
+                if (x == y) {
+                    count++;
+                    break;
+                }
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,26 @@
+package com.dawillygene.ConfideHubs.service.recommendation;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class RecommendationFeedTest {
+
+    @Test
+    void cursorRoundTrips() {
+        RecommendationFeed.Cursor cursor = new RecommendationFeed.Cursor(-4_611_686_018_427_387_904L, 40);
+        String encoded = cursor.encode();
+        assertEquals(cursor, RecommendationFeed.Cursor.decode(encoded));
+        assertEquals(-1, encoded.indexOf('='));
+    }
+
+    @Test
+    void malformedCursorsDecodeToNull() {
+        assertNull(RecommendationFeed.Cursor.decode(null));
+        assertNull(RecommendationFeed.Cursor.decode(""));
+        assertNull(RecommendationFeed.Cursor.decode("not base64!"));
+        assertNull(RecommendationFeed.Cursor.decode(new RecommendationFeed.Cursor(1, 0).encode() + "x"));
+        assertNull(RecommendationFeed.Cursor.decode(new RecommendationFeed.Cursor(1, -5).encode()));
+    }
+}
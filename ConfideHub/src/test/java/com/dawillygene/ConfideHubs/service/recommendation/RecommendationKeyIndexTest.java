@@ -0,0 +1,37 @@
+package com.dawillygene.ConfideHubs.service.recommendation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RecommendationKeyIndexTest {
+
+    @Test
+    void findsTheKeysOfAUserAndOfThePostsTheirListsContain() {
+        RecommendationKeyIndex index = new RecommendationKeyIndex();
+        index.add("1_2_HYBRID", 1L, List.of("a", "b"));
+        index.add("1_1_ALS", 1L, List.of("c"));
+        index.add("2_2_HYBRID", 2L, List.of("b", "c"));
+
+        assertEquals(Set.of("1_2_HYBRID", "2_2_HYBRID"), index.removePost("b"));
+        assertEquals(Set.of(), index.removePost("b"));
+        assertEquals(Set.of("1_2_HYBRID", "1_1_ALS"), index.removeUser(1L));
+        assertEquals(Set.of("1_1_ALS", "2_2_HYBRID"), index.removePost("c"));
+    }
+
+    @Test
+    void retainForgetsKeysTheCacheNoLongerHolds() {
+        RecommendationKeyIndex index = new RecommendationKeyIndex();
+        index.add("1_2_HYBRID", 1L, List.of("a"));
+        index.add("2_2_HYBRID", 2L, List.of("a", "b"));
+
+        index.retain(key -> key.startsWith("2_"));
+        assertEquals(Set.of(), index.removeUser(1L));
+        assertEquals(Set.of("2_2_HYBRID"), index.removePost("a"));
+        // User 2 and post "b" are left
+        assertEquals(2, index.size());
+    }
+}
@@ -0,0 +1,57 @@
+package com.dawillygene.ConfideHubs.service.recommendation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TopKTest {
+
+    @Test
+    void keepsTheHighestScoresInDescendingOrder() {
+        TopK top = new TopK(3);
+        assertEquals(Double.NEGATIVE_INFINITY, top.threshold());
+        double[] scores = {0.5, 2.0, -1.0, 3.0, 1.0, 2.5};
+        for (int i = 0; i < scores.length; i++) {
+            top.offer(i, scores[i]);
+        }
+
+        assertEquals(3, top.size());
+        assertArrayEquals(new int[]{3, 5, 1}, top.indexes());
+        assertArrayEquals(new double[]{3.0, 2.5, 2.0}, top.scores());
+        assertArrayEquals(new float[]{3.0f, 2.5f, 2.0f}, top.scoresAsFloats());
+        assertEquals(2.0, top.threshold());
+    }
+
+    @Test
+    void matchesAFullSortOnRandomScores() {
+        Random random = new Random(7);
+        double[] scores = new double[1_000];
+        TopK top = new TopK(20);
+        for (int i = 0; i < scores.length; i++) {
+            scores[i] = random.nextDouble();
+            top.offer(i, scores[i]);
+        }
+
+        double[] sorted = scores.clone();
+        Arrays.sort(sorted);
+        double[] expected = new double[20];
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = sorted[sorted.length - 1 - i];
+        }
+        assertArrayEquals(expected, top.scores());
+    }
+
+    @Test
+    void emptyOrNegativeCapacityKeepsNothing() {
+        for (int capacity : new int[]{0, -5}) {
+            TopK top = new TopK(capacity);
+            top.offer(1, 1.0);
+            assertEquals(0, top.size());
+            assertArrayEquals(new int[0], top.indexes());
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.dawillygene.ConfideHubs.service.recommendation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UserNeighbourhoodsTest {
+
+    @Test
+    void storedNeighbourhoodsScoreLikeExactCollaborativeFiltering() {
+        Random random = new Random(3);
+        InteractionMatrix.Builder builder = InteractionMatrix.builder();
+        for (long user = 0; user < 300; user++) {
+            for (int i = 0; i < 8; i++) {
+                builder.add(user, "post" + random.nextInt(200), 1 + random.nextInt(3));
+            }
+        }
+        InteractionMatrix matrix = builder.build();
+        // Capacity above the user count keeps every co-reacting user, so nothing is cut off
+        UserNeighbourhoods neighbourhoods = UserNeighbourhoods.build(matrix, 1_000);
+        RecommendationModel model = new RecommendationModel(RecommendationModel.LIVE_VERSION, matrix,
+                ContentIndex.empty(), null, null, null, neighbourhoods, null, 1, 0);
+
+        for (long user = 0; user < 300; user += 37) {
+            IntDoubleMap exact = model.collaborativeScores(user);
+            IntDoubleMap stored = model.neighbourhoodScores(user);
+            assertEquals(exact.size(), stored.size());
+            for (int i = 0; i < exact.size(); i++) {
+                assertEquals(exact.valueAt(i), stored.get(exact.keyAt(i)), 1e-6);
+            }
+        }
+    }
+
+    @Test
+    void refreshRecomputesTheUserAndPatchesTheirNeighbours() {
+        InteractionMatrix matrix = InteractionMatrix.builder()
+                .add(1L, "a", 1).add(1L, "b", 1)
+                .add(2L, "a", 1).add(2L, "c", 1)
+                .add(3L, "b", 1).add(3L, "c", 1)
+                .build();
+        UserNeighbourhoods neighbourhoods = UserNeighbourhoods.build(matrix, 1);
+
+        // User 3 now overlaps user 2 completely and becomes their single best neighbour
+        matrix.add(3L, "a", 1);
+        Set<Long> changed = neighbourhoods.refresh(matrix, 3L);
+
+        assertEquals(Set.of(1L, 2L, 3L), changed);
+        assertArrayEquals(new long[]{3L}, neighbourhoods.get(2L).userIds());
+        assertTrue(neighbourhoods.get(2L).includes(3L));
+        assertFalse(neighbourhoods.get(2L).includes(1L));
+        assertEquals(matrix.cosineSimilarity(matrix.userIndex(2L), matrix.userIndex(3L)),
+                neighbourhoods.get(2L).similarities()[0], 1e-6);
+
+        matrix.add(3L, "a", -1);
+        matrix.add(3L, "b", -1);
+        matrix.add(3L, "c", -1);
+        neighbourhoods.refresh(matrix, 3L);
+        assertNull(neighbourhoods.get(3L));
+    }
+}
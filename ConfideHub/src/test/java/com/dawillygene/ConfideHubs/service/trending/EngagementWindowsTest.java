@@ -0,0 +1,50 @@
+package com.dawillygene.ConfideHubs.service.trending;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class EngagementWindowsTest {
+
+    private static final long MINUTE = 60_000;
+    private static final long START = 1_000 * 60 * MINUTE;
+
+    @Test
+    void windowsRollOverAndIdlePostsAreDropped() {
+        EngagementWindows windows = new EngagementWindows();
+        windows.add("a", 2, START);
+
+        // 0.5 × 12 × 2 + 0.3 × 2 + 0.2 × 2 / 24
+        assertEquals(12 + 0.6 + 0.4 / 24, windows.score("a", START), 1e-9);
+        // Out of the 5-minute window, still in the hour
+        assertEquals(0.6 + 0.4 / 24, windows.score("a", START + 6 * MINUTE), 1e-9);
+        // Only the day window left
+        assertEquals(0.4 / 24, windows.score("a", START + 2 * 60 * MINUTE), 1e-9);
+
+        // A removed reaction cancels out, and a post with nothing left in 24 hours is dropped
+        windows.add("b", 1, START);
+        windows.add("b", -1, START + MINUTE);
+        assertEquals(List.of(new EngagementWindows.Ranked("a", 0.4 / 24)),
+                windows.rank(START + 2 * 60 * MINUTE, 10));
+        assertEquals(List.of(), windows.rank(START + 25 * 60 * MINUTE, 10));
+        assertEquals(0, windows.size());
+    }
+
+    @Test
+    void aBurstOutranksOlderSteadyEngagement() {
+        EngagementWindows windows = new EngagementWindows();
+        long now = START + 3 * 60 * MINUTE;
+        for (int i = 0; i < 20; i++) {
+            windows.add("steady", 1, now - (i + 1) * 8 * MINUTE);
+        }
+        for (int i = 0; i < 5; i++) {
+            windows.add("burst", 1, now - i * 10_000);
+        }
+        windows.add("quiet", 1, now - 30 * MINUTE);
+
+        List<EngagementWindows.Ranked> ranked = windows.rank(now, 2);
+        assertEquals(List.of("burst", "steady"), ranked.stream().map(EngagementWindows.Ranked::postId).toList());
+    }
+}
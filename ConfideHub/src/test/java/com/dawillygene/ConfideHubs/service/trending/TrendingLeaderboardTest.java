@@ -0,0 +1,72 @@
+package com.dawillygene.ConfideHubs.service.trending;
+
+import com.dawillygene.ConfideHubs.service.PostService;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class TrendingLeaderboardTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+    private static TrendingLeaderboard.Entry entry(String id, double score, int hoursAgo) {
+        return new TrendingLeaderboard.Entry(id, score, NOW.minusHours(hoursAgo), null);
+    }
+
+    @Test
+    void pagesFollowTheTrendingOrderUntilTheBound() {
+        TrendingLeaderboard leaderboard = new TrendingLeaderboard(3);
+        assertNull(leaderboard.page(0, 2, NOW));
+
+        leaderboard.load(List.of(entry("a", 5, 1), entry("b", 4, 1), entry("c", 4, 2), entry("d", 3, 1)));
+        assertEquals(List.of("a", "b"), leaderboard.page(0, 2, NOW));
+        assertEquals(List.of("c"), leaderboard.page(2, 1, NOW));
+        // "d" is only known as the bound, so the board cannot say what comes after "c"
+        assertNull(leaderboard.page(2, 2, NOW));
+
+        // An expired post is skipped and the next one moves up
+        leaderboard.update(new TrendingLeaderboard.Entry("b", 4, NOW.minusHours(1), NOW.minusMinutes(1)));
+        assertEquals(List.of("a", "c"), leaderboard.page(0, 2, NOW));
+
+        // A post that fell below the bound cannot be placed any more
+        leaderboard.update(entry("a", 1, 1));
+        assertEquals(List.of("c"), leaderboard.page(0, 1, NOW));
+        assertNull(leaderboard.page(0, 3, NOW));
+
+        // An outside post that overtakes the last entry joins and pushes it out
+        leaderboard.update(entry("e", 10, 5));
+        assertEquals(List.of("e", "c"), leaderboard.page(0, 2, NOW));
+        assertEquals(3, leaderboard.size());
+    }
+
+    @Test
+    void writesDuringALoadAreReplayedOnTopOfIt() {
+        TrendingLeaderboard leaderboard = new TrendingLeaderboard(10);
+        leaderboard.beginLoad();
+        leaderboard.update(entry("b", 9, 1));
+        leaderboard.remove("c");
+
+        leaderboard.load(List.of(entry("a", 5, 1), entry("b", 4, 1), entry("c", 3, 1)));
+        assertEquals(List.of("b", "a"), leaderboard.page(0, 10, NOW));
+    }
+
+    @Test
+    void aNewPostWithoutEngagementOutranksAPostEngagedWithLongAgo() {
+        LocalDateTime monthAgo = NOW.minusDays(30);
+        double old = PostService.trendingScore(40, 20, 10, monthAgo.toEpochSecond(ZoneOffset.UTC));
+        double fresh = PostService.initialTrendingScore(NOW);
+        // Without engagement a post still ranks below one with a single like of the same age
+        double liked = PostService.trendingScore(1, 0, 0, NOW.toEpochSecond(ZoneOffset.UTC));
+
+        TrendingLeaderboard leaderboard = new TrendingLeaderboard(10);
+        leaderboard.load(List.of(new TrendingLeaderboard.Entry("old", old, monthAgo, null),
+                new TrendingLeaderboard.Entry("fresh", fresh, NOW, null),
+                new TrendingLeaderboard.Entry("liked", liked, NOW, null)));
+        assertEquals(List.of("liked", "fresh", "old"), leaderboard.page(0, 3, NOW));
+    }
+}